@@ -0,0 +1,104 @@
+package com.researchspace.licenseserver.benchmark;
+
+import com.researchspace.licenseserver.model.CustomerContact;
+import com.researchspace.licenseserver.model.CustomerInfo;
+import com.researchspace.licenseserver.model.License;
+import com.researchspace.licenseserver.model.PooledLoSequenceGenerator;
+import com.researchspace.licenseserver.model.ServerInfo;
+import com.researchspace.licenseserver.model.ServerInformationBlob;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to insert <code>rows</code> licenses into an in-memory H2 database with JDBC batching.
+ * An allocation size of 1 costs a sequence call per row, as the previous <code>AUTO</code>
+ * generation did; larger sizes assign ids in memory between sequence calls.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchInsertBenchmark {
+
+  private static final int BATCH_SIZE = 50;
+
+  @Param({"1", "50"})
+  private int allocationSize;
+
+  @Param({"100000"})
+  private int rows;
+
+  private SessionFactory sessionFactory;
+
+  private int iteration;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    Map<String, Object> settings = new HashMap<>();
+    settings.put("hibernate.connection.driver_class", "org.h2.Driver");
+    settings.put("hibernate.connection.url",
+        "jdbc:h2:mem:batchinsert" + iteration++ + ";DB_CLOSE_DELAY=-1");
+    settings.put("hibernate.connection.username", "sa");
+    settings.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+    settings.put("hibernate.hbm2ddl.auto", "create-drop");
+    settings.put("hibernate.jdbc.batch_size", BATCH_SIZE);
+    settings.put("hibernate.order_inserts", true);
+    settings.put("javax.persistence.validation.mode", "none");
+    settings.put("hibernate.cache.use_second_level_cache", false);
+    settings.put(PooledLoSequenceGenerator.ALLOCATION_SIZE_SETTING, allocationSize);
+    sessionFactory = new MetadataSources(
+        new StandardServiceRegistryBuilder().applySettings(settings).build())
+        .addAnnotatedClass(License.class)
+        .addAnnotatedClass(CustomerInfo.class)
+        .addAnnotatedClass(CustomerContact.class)
+        .addAnnotatedClass(ServerInfo.class)
+        .addAnnotatedClass(ServerInformationBlob.class)
+        .buildMetadata()
+        .buildSessionFactory();
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    sessionFactory.close();
+  }
+
+  @Benchmark
+  public int insertLicenses() {
+    try (Session session = sessionFactory.openSession()) {
+      Transaction tx = session.beginTransaction();
+      for (int i = 0; i < rows; i++) {
+        License license = Fixtures.activeLicense();
+        license.setUniqueKey("bench-" + i);
+        session.persist(license);
+        if (i % BATCH_SIZE == BATCH_SIZE - 1) {
+          session.flush();
+          session.clear();
+        }
+      }
+      tx.commit();
+    }
+    return rows;
+  }
+
+}
@@ -0,0 +1,114 @@
+package com.researchspace.licenseserver.benchmark;
+
+import com.researchspace.licenseserver.bulkimport.CustomerImporter;
+import com.researchspace.licenseserver.bulkimport.ImportSummary;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to parse, validate and deduplicate <code>rows</code> contact rows with
+ * {@link CustomerImporter}, using <code>threads</code> validation threads. The CSV is generated
+ * as it is read, 50 contacts per organisation with one duplicate email in every 100 rows, and
+ * batches are discarded, so the result is the importer's own throughput.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkImportBenchmark {
+
+  @Param({"1", "4"})
+  private int threads;
+
+  @Param({"1000000"})
+  private int rows;
+
+  private ExecutorService executor;
+
+  private CustomerImporter importer;
+
+  @Setup
+  public void setUp() {
+    Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    executor = Executors.newFixedThreadPool(threads);
+    importer = new CustomerImporter(validator, executor, CustomerImporter.DEFAULT_BATCH_SIZE,
+        2 * threads);
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Benchmark
+  public ImportSummary importContacts() throws IOException {
+    return importer.importCsv(new GeneratedCsv(rows), customers -> { }, error -> { });
+  }
+
+  /*
+   * Produces the CSV a line at a time, so the input does not sit in memory
+   */
+  private static final class GeneratedCsv extends Reader {
+
+    private final int rows;
+    private int row = -1;
+    private final StringBuilder line = new StringBuilder(128);
+    private int linePosition;
+
+    GeneratedCsv(int rows) {
+      this.rows = rows;
+      line.append("organisationName,firstName,lastName,email,telephone\r\n");
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+      if (linePosition == line.length()) {
+        if (++row == rows) {
+          return -1;
+        }
+        int contact = row % 100 == 99 ? row - 1 : row;
+        line.setLength(0);
+        // zero-padded, so that the organisations are sorted by name, as the importer requires
+        int organisation = row / 50;
+        line.append("\"University ");
+        for (int digits = 10; digits < 10_000_000; digits *= 10) {
+          if (organisation < digits) {
+            line.append('0');
+          }
+        }
+        line.append(organisation).append(", Research\",First")
+            .append(row).append(",Last").append(row).append(",contact").append(contact)
+            .append("@example.org,+44 (131) 456-7890 ext").append(row % 1000).append("\r\n");
+        linePosition = 0;
+      }
+      int n = Math.min(len, line.length() - linePosition);
+      line.getChars(linePosition, linePosition + n, cbuf, off);
+      linePosition += n;
+      return n;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+}
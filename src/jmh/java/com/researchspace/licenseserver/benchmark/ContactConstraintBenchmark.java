@@ -0,0 +1,101 @@
+package com.researchspace.licenseserver.benchmark;
+
+import com.researchspace.licenseserver.model.CustomerContact;
+import com.researchspace.licenseserver.model.validation.ContainsLetterValidator;
+import com.researchspace.licenseserver.model.validation.TelephoneNumberValidator;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link ContainsLetterValidator} and {@link TelephoneNumberValidator} checks against the
+ * regexes they replaced, on a typical value and on pathological ones: a long run of digits with
+ * no letter, which makes <code>.*(?=[A-Za-z]).+</code> backtrack quadratically, and long values
+ * that fail only on their last character.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContactConstraintBenchmark {
+
+  private static final Pattern AT_LEAST_ONE_CHAR = Pattern.compile(
+      CustomerContact.AT_LEAST_ONE_CHAR);
+
+  private static final Pattern TELEPHONE = Pattern.compile("^[ext\\d\\-\\s+\\(\\)]+$");
+
+  @Param({"typical", "noLetter", "trailingInvalid"})
+  private String input;
+
+  @Param({"30", "1000"})
+  private int length;
+
+  private String name;
+
+  private String telephone;
+
+  private final ContainsLetterValidator containsLetter = new ContainsLetterValidator();
+
+  private final TelephoneNumberValidator telephoneNumber = new TelephoneNumberValidator();
+
+  @Setup
+  public void setUp() {
+    switch (input) {
+      case "typical":
+        name = repeat("Smith-Jones ", length);
+        telephone = repeat("+44 (131) 456-7890 ext1 ", length);
+        break;
+      case "noLetter":
+        name = repeat("1234567890", length);
+        telephone = repeat("1234567890", length);
+        break;
+      case "trailingInvalid":
+        name = repeat("1234567890", length - 1) + "\n";
+        telephone = repeat("+44 (131) 456-7890 ", length - 1) + "z";
+        break;
+      default:
+        throw new IllegalArgumentException(input);
+    }
+  }
+
+  private static String repeat(String s, int length) {
+    StringBuilder sb = new StringBuilder(length);
+    while (sb.length() < length) {
+      sb.append(s);
+    }
+    return sb.substring(0, length);
+  }
+
+  @Benchmark
+  public boolean containsLetterRegex() {
+    return AT_LEAST_ONE_CHAR.matcher(name).matches();
+  }
+
+  @Benchmark
+  public boolean containsLetter() {
+    return containsLetter.isValid(name, null);
+  }
+
+  @Benchmark
+  public boolean telephoneRegex() {
+    return TELEPHONE.matcher(telephone).matches();
+  }
+
+  @Benchmark
+  public boolean telephoneNumber() {
+    return telephoneNumber.isValid(telephone, null);
+  }
+
+}
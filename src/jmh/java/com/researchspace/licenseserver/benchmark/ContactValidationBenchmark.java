@@ -0,0 +1,55 @@
+package com.researchspace.licenseserver.benchmark;
+
+import com.researchspace.licenseserver.model.CustomerContact;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bean Validation of {@link CustomerContact}, for a valid contact and one violating every
+ * constraint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContactValidationBenchmark {
+
+  private Validator validator;
+
+  private CustomerContact valid;
+
+  private CustomerContact invalid;
+
+  @Setup
+  public void setUp() {
+    validator = Validation.buildDefaultValidatorFactory().getValidator();
+    valid = Fixtures.contact(1);
+    invalid = new CustomerContact("1234", "234-&5", "123@4456", "zzz");
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<CustomerContact>> validContact() {
+    return validator.validate(valid);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<CustomerContact>> invalidContact() {
+    return validator.validate(invalid);
+  }
+
+}
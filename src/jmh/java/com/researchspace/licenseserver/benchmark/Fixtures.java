@@ -0,0 +1,80 @@
+package com.researchspace.licenseserver.benchmark;
+
+import com.researchspace.licenseserver.model.CustomerContact;
+import com.researchspace.licenseserver.model.CustomerInfo;
+import com.researchspace.licenseserver.model.License;
+import com.researchspace.licenseserver.model.ServerInfo;
+import java.util.Calendar;
+
+/**
+ * Builds the entity graphs shared by the benchmarks.
+ */
+final class Fixtures {
+
+  private Fixtures() {
+  }
+
+  /**
+   * An active license, valid from a year ago until a year from now.
+   */
+  static License activeLicense() {
+    Calendar cal = Calendar.getInstance();
+    cal.add(Calendar.YEAR, -1);
+    License license = new License();
+    license.setActivationDate(cal.getTime());
+    cal.add(Calendar.YEAR, 2);
+    license.setExpiryDate(cal.getTime());
+    license.setUniqueKey("bench-license-key");
+    license.setTotalUserSeats(500);
+    license.setTotalFreeRSpaceadmin(10);
+    license.setTotalFreeSysadmin(2);
+    license.setUsedSeatCount(321);
+    return license;
+  }
+
+  /**
+   * An active license with a customer holding <code>contactCount</code> contacts and a server.
+   */
+  static License licenseGraph(int contactCount) {
+    License license = activeLicense();
+    license.setCustomerInfo(customer(contactCount));
+    ServerInfo server = new ServerInfo("bench-server-id", "https://rspace.example.org");
+    server.setMacId("00:1B:44:11:3A:B7");
+    server.setServerInformation("Linux 5.15, OpenJDK 17.0.2, 16 cores, 64GB RAM");
+    license.setServerInfo(server);
+    return license;
+  }
+
+  /**
+   * A plausible environment dump, as reported in <code>ServerInfo.serverInformation</code>, of
+   * about <code>kiloBytes</code> KB.
+   */
+  static String serverInformation(int kiloBytes) {
+    String[] keys = {"java.vm.version", "java.home", "os.name", "os.version", "user.dir",
+        "catalina.base", "rs.filestore", "jdbc.url", "PATH", "JAVA_OPTS"};
+    String[] values = {"17.0.2+8-86", "/usr/lib/jvm/java-17-openjdk-amd64", "Linux",
+        "5.15.0-91-generic", "/opt/tomcat", "/opt/tomcat/rspace", "/media/rspace/filestore",
+        "jdbc:mysql://localhost:3306/rspace?useSSL=false", "/usr/local/bin:/usr/bin:/bin",
+        "-Xms2g -Xmx8g -XX:+UseG1GC -Dfile.encoding=UTF-8"};
+    StringBuilder sb = new StringBuilder(kiloBytes * 1024);
+    for (int i = 0; sb.length() < kiloBytes * 1024; i++) {
+      sb.append(keys[i % keys.length]).append('.').append(i / keys.length).append('=')
+          .append(values[(i * 7) % values.length]).append('\n');
+    }
+    return sb.toString();
+  }
+
+  static CustomerInfo customer(int contactCount) {
+    CustomerInfo customer = new CustomerInfo("University of Benchmarking");
+    for (int i = 0; i < contactCount; i++) {
+      customer.addContact(contact(i));
+    }
+    return customer;
+  }
+
+  static CustomerContact contact(int i) {
+    return new CustomerContact("First" + i, "Last" + i, "contact" + i + "@example.org",
+        "+44 (131) 456-7890 ext" + i);
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.researchspace.licenseserver.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.researchspace.licenseserver.model.CustomerInfo;
+import com.researchspace.licenseserver.model.License;
+import com.researchspace.licenseserver.model.LicenseJsonModule;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Jackson serialization and deserialization of {@link License} and {@link CustomerInfo} graphs,
+ * including the formatted date getters invoked on every serialization. <code>mapperType</code>
+ * compares the default bean (de)serializers with those of {@link LicenseJsonModule}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonRoundTripBenchmark {
+
+  @Param({"1", "10"})
+  private int contactCount;
+
+  @Param({"bean", "module"})
+  private String mapperType;
+
+  private ObjectMapper mapper;
+
+  private License license;
+
+  private CustomerInfo customer;
+
+  private byte[] licenseJson;
+
+  private byte[] customerJson;
+
+  @Setup
+  public void setUp() throws IOException {
+    mapper = new ObjectMapper();
+    if ("module".equals(mapperType)) {
+      mapper.registerModule(new LicenseJsonModule());
+    }
+    license = Fixtures.licenseGraph(contactCount);
+    customer = Fixtures.customer(contactCount);
+    licenseJson = mapper.writeValueAsBytes(license);
+    customerJson = mapper.writeValueAsBytes(customer);
+  }
+
+  @Benchmark
+  public byte[] serializeLicense() throws IOException {
+    return mapper.writeValueAsBytes(license);
+  }
+
+  @Benchmark
+  public License deserializeLicense() throws IOException {
+    return mapper.readValue(licenseJson, License.class);
+  }
+
+  @Benchmark
+  public byte[] serializeCustomer() throws IOException {
+    return mapper.writeValueAsBytes(customer);
+  }
+
+  @Benchmark
+  public CustomerInfo deserializeCustomer() throws IOException {
+    return mapper.readValue(customerJson, CustomerInfo.class);
+  }
+
+  @Benchmark
+  public String formattedDates() {
+    return license.getExpiryDateFormatted() + license.getActivationDateFormatted();
+  }
+
+}
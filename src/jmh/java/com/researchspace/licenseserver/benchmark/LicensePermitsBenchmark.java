@@ -0,0 +1,75 @@
+package com.researchspace.licenseserver.benchmark;
+
+import com.researchspace.licenseserver.model.License;
+import com.researchspace.licenseserver.model.SeatRole;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the per check-in calls, {@link License#isActive()} and
+ * {@link License#permits(String, int)}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LicensePermitsBenchmark {
+
+  private License license;
+
+  private int enabledUsers;
+
+  private long now;
+
+  private int[] enabledByRole;
+
+  @Setup
+  public void setUp() {
+    license = Fixtures.activeLicense();
+    enabledUsers = 123;
+    now = System.currentTimeMillis();
+    enabledByRole = new int[SeatRole.COUNT];
+    enabledByRole[SeatRole.USER.ordinal()] = enabledUsers;
+    enabledByRole[SeatRole.ADMIN.ordinal()] = 3;
+    enabledByRole[SeatRole.SYSADMIN.ordinal()] = 1;
+  }
+
+  @Benchmark
+  public boolean isActive() {
+    return license.isActive();
+  }
+
+  @Benchmark
+  public boolean isActiveAtTime() {
+    return license.isActive(now);
+  }
+
+  @Benchmark
+  public int permitsUser() {
+    return license.permits("ROLE_USER", enabledUsers);
+  }
+
+  @Benchmark
+  public int permitsAllRoles() {
+    return license.permits("ROLE_USER", enabledUsers)
+        + license.permits("ROLE_ADMIN", 3)
+        + license.permits("ROLE_SYSADMIN", 1);
+  }
+
+  @Benchmark
+  public int[] permitsAllRolesBatch() {
+    return license.permitsAll(enabledByRole, now);
+  }
+
+}
@@ -0,0 +1,73 @@
+package com.researchspace.licenseserver.benchmark;
+
+import com.researchspace.licenseserver.model.License;
+import com.researchspace.licenseserver.token.LicenseTokenSigner;
+import com.researchspace.licenseserver.token.LicenseTokenVerifier;
+import com.researchspace.licenseserver.token.VerifiedLicenseToken;
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of offline license checks with signed tokens. <code>verifyCached</code> re-verifies
+ * the token an instance holds; <code>verifyUncached</code> alternates between two tokens so that
+ * every call checks the Ed25519 signature and parses the payload.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LicenseTokenBenchmark {
+
+  private LicenseTokenSigner signer;
+
+  private LicenseTokenVerifier verifier;
+
+  private License license;
+
+  private String[] tokens;
+
+  private int next;
+
+  @Setup
+  public void setUp() {
+    KeyPair keys = LicenseTokenSigner.generateKeyPair();
+    signer = new LicenseTokenSigner(keys.getPrivate());
+    verifier = new LicenseTokenVerifier(keys.getPublic());
+    license = Fixtures.activeLicense();
+    String first = signer.sign(license);
+    license.setUsedSeatCount(license.getUsedSeatCount() + 1);
+    tokens = new String[]{first, signer.sign(license)};
+  }
+
+  @Benchmark
+  public String sign() {
+    return signer.sign(license);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public boolean verifyCached() {
+    VerifiedLicenseToken token = verifier.verify(tokens[0]);
+    return token.getLicense().isActive();
+  }
+
+  @Benchmark
+  public boolean verifyUncached() {
+    VerifiedLicenseToken token = verifier.verify(tokens[next++ & 1]);
+    return token.getLicense().isActive();
+  }
+
+}
@@ -0,0 +1,76 @@
+package com.researchspace.licenseserver.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.researchspace.licenseserver.model.CompressedText;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of storing <code>ServerInfo.serverInformation</code> compressed. Run with
+ * <code>-prof gc</code> to compare the heap allocated per read; the row sizes, raw and
+ * compressed, are printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServerInformationBenchmark {
+
+  @Param({"4", "64", "512"})
+  private int kiloBytes;
+
+  private String text;
+
+  private CompressedText compressed;
+
+  @Setup
+  public void setUp() {
+    text = Fixtures.serverInformation(kiloBytes);
+    compressed = CompressedText.of(text);
+    System.out.printf("%nrow bytes: raw %d, compressed %d%n", text.getBytes(UTF_8).length,
+        compressed.compressedLength());
+  }
+
+  @Benchmark
+  public CompressedText compress() {
+    return CompressedText.of(text);
+  }
+
+  @Benchmark
+  public String decompressToString() {
+    return compressed.asString();
+  }
+
+  @Benchmark
+  public long streamLines() throws IOException {
+    long newlines = 0;
+    char[] buffer = new char[4096];
+    try (Reader reader = compressed.openReader()) {
+      int read;
+      while ((read = reader.read(buffer)) != -1) {
+        for (int i = 0; i < read; i++) {
+          if (buffer[i] == '\n') {
+            newlines++;
+          }
+        }
+      }
+    }
+    return newlines;
+  }
+
+}
@@ -0,0 +1,163 @@
+package com.researchspace.licenseserver.apikey;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves the API key of a request to the unique key of its license, caching the stored keys so
+ * that most requests cost a SHA-256 and no database lookup.
+ * <p>
+ * Stored keys are cached by key id for a time to live; ids that the store does not know are
+ * cached too, for a shorter time, so repeated requests with a bad key do not reach the store
+ * either. The presented secret is hashed and compared with the stored hash in constant time on
+ * every request, so the cache never holds secrets.
+ * <p>
+ * The cache is bounded: when full, expired entries are dropped first, then unknown ids, then
+ * arbitrary entries. When a license is revoked or its key changes, call
+ * {@link #invalidateLicense(String)} or {@link #invalidateKey(String)} so the next request goes
+ * to the store.
+ */
+public class ApiKeyResolver {
+
+  public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+  public static final Duration DEFAULT_NEGATIVE_TTL = Duration.ofSeconds(30);
+
+  private static final class Entry {
+
+    // null if the key id is unknown
+    private final StoredApiKey key;
+    private final long expiresAtMillis;
+
+    private Entry(StoredApiKey key, long expiresAtMillis) {
+      this.key = key;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+  }
+
+  private final ApiKeyStore store;
+
+  private final int maxSize;
+
+  private final long ttlMillis;
+
+  private final long negativeTtlMillis;
+
+  private final Clock clock;
+
+  private final ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<>();
+
+  /*
+   * Incremented by every invalidation, so that a lookup racing with one does not re-cache the
+   * key it read before the invalidation
+   */
+  private final AtomicLong invalidations = new AtomicLong();
+
+  public ApiKeyResolver(ApiKeyStore store, int maxSize) {
+    this(store, maxSize, DEFAULT_TTL, DEFAULT_NEGATIVE_TTL, Clock.systemUTC());
+  }
+
+  /**
+   * @param ttl         how long a stored key is cached
+   * @param negativeTtl how long an unknown key id is cached
+   */
+  public ApiKeyResolver(ApiKeyStore store, int maxSize, Duration ttl, Duration negativeTtl,
+      Clock clock) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Max size must be at least 1 but was " + maxSize);
+    }
+    this.store = store;
+    this.maxSize = maxSize;
+    this.ttlMillis = ttl.toMillis();
+    this.negativeTtlMillis = negativeTtl.toMillis();
+    this.clock = clock;
+  }
+
+  /**
+   * The unique key of the license the API key belongs to, or <code>null</code> if the API key is
+   * malformed, unknown or revoked, or its secret is wrong.
+   */
+  public String resolve(String apiKey) {
+    String keyId = ApiKeys.keyId(apiKey);
+    if (keyId == null) {
+      return null;
+    }
+    StoredApiKey stored = lookup(keyId);
+    return stored != null && stored.matches(ApiKeys.secret(apiKey))
+        ? stored.getLicenseUniqueKey() : null;
+  }
+
+  private StoredApiKey lookup(String keyId) {
+    long now = clock.millis();
+    Entry entry = cache.get(keyId);
+    if (entry != null && entry.expiresAtMillis > now) {
+      return entry.key;
+    }
+    long generation = invalidations.get();
+    StoredApiKey stored = store.findByKeyId(keyId);
+    entry = new Entry(stored, now + (stored == null ? negativeTtlMillis : ttlMillis));
+    if (cache.size() >= maxSize && !cache.containsKey(keyId)) {
+      makeRoom(now);
+    }
+    cache.put(keyId, entry);
+    if (invalidations.get() != generation) {
+      cache.remove(keyId, entry);
+    }
+    return stored;
+  }
+
+  private synchronized void makeRoom(long now) {
+    if (cache.size() < maxSize) {
+      return;
+    }
+    cache.values().removeIf(e -> e.expiresAtMillis <= now);
+    if (cache.size() >= maxSize) {
+      cache.values().removeIf(e -> e.key == null);
+    }
+    Iterator<Entry> it = cache.values().iterator();
+    while (cache.size() >= maxSize && it.hasNext()) {
+      it.next();
+      it.remove();
+    }
+  }
+
+  /**
+   * Drops the cached keys of a license, e.g. when it is revoked.
+   *
+   * @return the number of cached keys dropped
+   */
+  public int invalidateLicense(String licenseUniqueKey) {
+    invalidations.incrementAndGet();
+    int[] dropped = new int[1];
+    cache.values().removeIf(e -> {
+      boolean matches = e.key != null && e.key.getLicenseUniqueKey().equals(licenseUniqueKey);
+      dropped[0] += matches ? 1 : 0;
+      return matches;
+    });
+    return dropped[0];
+  }
+
+  /**
+   * Drops a cached key or unknown key id.
+   */
+  public void invalidateKey(String keyId) {
+    invalidations.incrementAndGet();
+    cache.remove(keyId);
+  }
+
+  public void invalidateAll() {
+    invalidations.incrementAndGet();
+    cache.clear();
+  }
+
+  /**
+   * The number of cached entries, including unknown key ids.
+   */
+  public int size() {
+    return cache.size();
+  }
+
+}
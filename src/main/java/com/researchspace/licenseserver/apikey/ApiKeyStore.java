@@ -0,0 +1,14 @@
+package com.researchspace.licenseserver.apikey;
+
+/**
+ * Looks up stored API keys, typically from the license server database. Called by
+ * {@link ApiKeyResolver} on cache misses only.
+ */
+public interface ApiKeyStore {
+
+  /**
+   * The key with this id, or <code>null</code> if there is none or it has been revoked.
+   */
+  StoredApiKey findByKeyId(String keyId);
+
+}
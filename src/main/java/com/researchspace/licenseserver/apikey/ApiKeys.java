@@ -0,0 +1,112 @@
+package com.researchspace.licenseserver.apikey;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Creates and parses API keys, as sent in the <code>rs-apikey</code> header
+ * ({@link com.researchspace.licenseserver.model.License#APIKEY_HEADER}).
+ * <p>
+ * A key reads <code>&lt;key id&gt;.&lt;secret&gt;</code>. The key id is a public lookup handle,
+ * so a key can be found without hashing against every stored key; the secret is 256 random bits.
+ * Because secrets are random rather than user-chosen, a salted SHA-256 is enough to protect them
+ * at rest, and hashing is cheap enough to do on every request.
+ */
+public final class ApiKeys {
+
+  static final char SEPARATOR = '.';
+
+  private static final int KEY_ID_BYTES = 9;
+  private static final int SECRET_BYTES = 32;
+  private static final int SALT_BYTES = 16;
+
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+  private ApiKeys() {
+  }
+
+  /**
+   * A newly generated API key for a license.
+   */
+  public static final class Generated {
+
+    private final String apiKey;
+    private final StoredApiKey stored;
+
+    private Generated(String apiKey, StoredApiKey stored) {
+      this.apiKey = apiKey;
+      this.stored = stored;
+    }
+
+    /**
+     * The key to hand to the customer. It cannot be recovered later.
+     */
+    public String getApiKey() {
+      return apiKey;
+    }
+
+    /**
+     * What to persist.
+     */
+    public StoredApiKey getStored() {
+      return stored;
+    }
+  }
+
+  public static Generated generate(String licenseUniqueKey) {
+    String keyId = ENCODER.encodeToString(randomBytes(KEY_ID_BYTES));
+    String secret = ENCODER.encodeToString(randomBytes(SECRET_BYTES));
+    byte[] salt = randomBytes(SALT_BYTES);
+    return new Generated(keyId + SEPARATOR + secret,
+        new StoredApiKey(keyId, licenseUniqueKey, salt, hash(salt, secret)));
+  }
+
+  private static byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    RANDOM.nextBytes(bytes);
+    return bytes;
+  }
+
+  /**
+   * The key id of an API key, or <code>null</code> if it is not of the form
+   * <code>&lt;key id&gt;.&lt;secret&gt;</code>.
+   */
+  public static String keyId(String apiKey) {
+    int separator = separator(apiKey);
+    return separator < 0 ? null : apiKey.substring(0, separator);
+  }
+
+  /**
+   * The secret of an API key, or <code>null</code> if it is not of the form
+   * <code>&lt;key id&gt;.&lt;secret&gt;</code>.
+   */
+  public static String secret(String apiKey) {
+    int separator = separator(apiKey);
+    return separator < 0 ? null : apiKey.substring(separator + 1);
+  }
+
+  private static int separator(String apiKey) {
+    if (apiKey == null) {
+      return -1;
+    }
+    int separator = apiKey.indexOf(SEPARATOR);
+    return separator <= 0 || separator == apiKey.length() - 1 ? -1 : separator;
+  }
+
+  static byte[] hash(byte[] salt, String secret) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(salt);
+      return digest.digest(secret.getBytes(UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is required by the JVM spec", e);
+    }
+  }
+
+}
@@ -0,0 +1,76 @@
+package com.researchspace.licenseserver.apikey;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * The persisted form of an API key: its public id, the license it authenticates and a salted
+ * SHA-256 hash of its secret. The secret itself is never stored.
+ */
+public final class StoredApiKey {
+
+  private final String keyId;
+  private final String licenseUniqueKey;
+  private final byte[] salt;
+  private final byte[] hash;
+
+  /**
+   * @throws IllegalArgumentException if any argument is null
+   */
+  public StoredApiKey(String keyId, String licenseUniqueKey, byte[] salt, byte[] hash) {
+    if (keyId == null || licenseUniqueKey == null || salt == null || hash == null) {
+      throw new IllegalArgumentException("Key id, license, salt and hash must not be null");
+    }
+    this.keyId = keyId;
+    this.licenseUniqueKey = licenseUniqueKey;
+    this.salt = salt.clone();
+    this.hash = hash.clone();
+  }
+
+  public String getKeyId() {
+    return keyId;
+  }
+
+  public String getLicenseUniqueKey() {
+    return licenseUniqueKey;
+  }
+
+  public byte[] getSalt() {
+    return salt.clone();
+  }
+
+  public byte[] getHash() {
+    return hash.clone();
+  }
+
+  /**
+   * Whether <code>secret</code> hashes to this key's hash, compared in constant time.
+   */
+  public boolean matches(String secret) {
+    return MessageDigest.isEqual(hash, ApiKeys.hash(salt, secret));
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof StoredApiKey)) {
+      return false;
+    }
+    StoredApiKey other = (StoredApiKey) obj;
+    return keyId.equals(other.keyId) && licenseUniqueKey.equals(other.licenseUniqueKey)
+        && Arrays.equals(salt, other.salt) && Arrays.equals(hash, other.hash);
+  }
+
+  @Override
+  public int hashCode() {
+    return keyId.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "StoredApiKey [keyId=" + keyId + ", licenseUniqueKey=" + licenseUniqueKey + "]";
+  }
+
+}
@@ -0,0 +1,172 @@
+package com.researchspace.licenseserver.bulkimport;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental RFC 4180 CSV parser, reading one record at a time through a fixed-size buffer.
+ * Fields may be quoted, with <code>""</code> for a literal quote, and quoted fields may span
+ * lines. Records end with LF or CRLF; blank lines are skipped.
+ * <p>
+ * A malformed record is reported by {@link #next()} after skipping to the start of the next
+ * line, so that reading can resume there. Fields are limited in length, so that a stray opening
+ * quote does not swallow the rest of the input.
+ */
+class CsvReader {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  static final int DEFAULT_MAX_FIELD_LENGTH = 64 * 1024;
+
+  private final Reader reader;
+
+  private final int maxFieldLength;
+
+  private final char[] buffer = new char[BUFFER_SIZE];
+
+  private int position;
+
+  private int limit;
+
+  private final StringBuilder field = new StringBuilder();
+
+  private long lineNumber = 1;
+
+  private long recordLineNumber;
+
+  CsvReader(Reader reader) {
+    this(reader, DEFAULT_MAX_FIELD_LENGTH);
+  }
+
+  /**
+   * @param maxFieldLength the length above which a field makes its record malformed
+   */
+  CsvReader(Reader reader, int maxFieldLength) {
+    this.reader = reader;
+    this.maxFieldLength = maxFieldLength;
+  }
+
+  /**
+   * The line the record last returned by {@link #next()} started on, 1-based.
+   */
+  long getLineNumber() {
+    return recordLineNumber;
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return the record's fields, or <code>null</code> at the end of the input
+   * @throws IllegalArgumentException if a quoted field is not terminated or is followed by
+   *                                  anything other than a delimiter, or a field is too long.
+   *                                  {@link #getLineNumber()} is then the line the record
+   *                                  started on, and the next call reads from the line after
+   *                                  the one the problem was found on.
+   */
+  String[] next() throws IOException {
+    int c = read();
+    while (c == '\n' || c == '\r') {
+      skipLineEnd(c);
+      c = read();
+    }
+    if (c == -1) {
+      return null;
+    }
+    recordLineNumber = lineNumber;
+    List<String> fields = new ArrayList<>();
+    while (true) {
+      field.setLength(0);
+      if (c == '"') {
+        c = readQuoted();
+      } else {
+        while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+          appendToField(c);
+          c = read();
+        }
+      }
+      fields.add(field.toString());
+      if (c == ',') {
+        c = read();
+      } else {
+        if (c != -1) {
+          skipLineEnd(c);
+        }
+        return fields.toArray(new String[0]);
+      }
+    }
+  }
+
+  /*
+   * Reads a quoted field into the builder and returns the character after the closing quote
+   */
+  private int readQuoted() throws IOException {
+    while (true) {
+      int c = read();
+      if (c == -1) {
+        throw new IllegalArgumentException("Unterminated quoted field");
+      }
+      if (c == '"') {
+        c = read();
+        if (c != '"') {
+          if (c != ',' && c != '\n' && c != '\r' && c != -1) {
+            skipLine(c);
+            throw new IllegalArgumentException("Unexpected character after quoted field");
+          }
+          return c;
+        }
+      } else if (c == '\n') {
+        lineNumber++;
+      }
+      appendToField(c);
+    }
+  }
+
+  private void appendToField(int c) throws IOException {
+    if (field.length() == maxFieldLength) {
+      if (c != '\n') {
+        // a newline in a quoted field has been consumed and counted already
+        skipLine(c);
+      }
+      throw new IllegalArgumentException("Field longer than " + maxFieldLength + " characters");
+    }
+    field.append((char) c);
+  }
+
+  /*
+   * Consumes the rest of the line that c is on, including its line end
+   */
+  private void skipLine(int c) throws IOException {
+    while (c != '\n' && c != '\r' && c != -1) {
+      c = read();
+    }
+    if (c != -1) {
+      skipLineEnd(c);
+    }
+  }
+
+  /*
+   * Consumes the rest of a line end starting with c
+   */
+  private void skipLineEnd(int c) throws IOException {
+    lineNumber++;
+    if (c == '\r' && read() != '\n' && limit > 0) {
+      // not CRLF, leave the character for the next record
+      position--;
+    }
+  }
+
+  private int read() throws IOException {
+    if (position == limit) {
+      limit = reader.read(buffer, 0, buffer.length);
+      position = 0;
+      if (limit <= 0) {
+        limit = 0;
+        return -1;
+      }
+    }
+    return buffer[position++];
+  }
+
+}
@@ -0,0 +1,19 @@
+package com.researchspace.licenseserver.bulkimport;
+
+import com.researchspace.licenseserver.model.CustomerInfo;
+import java.util.List;
+
+/**
+ * Persists the batches of validated customers produced by a {@link CustomerImporter}.
+ */
+public interface CustomerBatchWriter {
+
+  /**
+   * Writes new customers with their contacts, as one batch.
+   *
+   * @param customers validated customers, never empty; contacts are already attached
+   * @throws RuntimeException if the batch could not be written, which aborts the import
+   */
+  void write(List<CustomerInfo> customers);
+
+}
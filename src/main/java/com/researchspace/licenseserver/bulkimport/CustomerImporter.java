@@ -0,0 +1,354 @@
+package com.researchspace.licenseserver.bulkimport;
+
+import com.researchspace.licenseserver.model.CustomerContact;
+import com.researchspace.licenseserver.model.CustomerInfo;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+/**
+ * Imports customers and their contacts from CSV, one contact per row, with the columns
+ * {@link #COLUMNS} named in a header row, in any order.
+ * <p>
+ * Rows are parsed incrementally and validated in chunks of <code>batchSize</code> rows on the
+ * given executor, against the same Bean Validation constraints as single entities, with one
+ * shared {@link Validator}. At most <code>maxInFlight</code> chunks are parsed ahead of the
+ * chunk being consumed, so memory use does not grow with the size of the input. Results are
+ * consumed in input order on the calling thread:
+ * <ul>
+ * <li>invalid rows are reported to the error consumer and skipped;</li>
+ * <li>contacts of a customer with the same email, ignoring case, are reduced to the one that
+ * sorts first by {@link CustomerContact#compareTo(CustomerContact)}, so the outcome does not
+ * depend on row order; the others are reported as duplicates;</li>
+ * <li>completed customers are passed to the {@link CustomerBatchWriter} in batches of at least
+ * <code>batchSize</code> contacts.</li>
+ * </ul>
+ * Rows must be sorted by organisation name, as compared by {@link String#compareTo(String)}, e.g.
+ * with <code>LC_ALL=C sort</code> for ASCII names. The rows of one organisation are held in
+ * memory until the next organisation starts, and only the current organisation is remembered, so
+ * memory use does not grow with the number of organisations; rows whose organisation sorts
+ * before it are rejected. A malformed CSV record, e.g. with an unterminated quote or a field
+ * longer than {@link #MAX_FIELD_LENGTH}, is rejected as one row, and parsing resumes at the next
+ * line.
+ * <p>
+ * Instances are thread-safe and can run several imports at once.
+ */
+public class CustomerImporter {
+
+  public static final String ORGANISATION_NAME = "organisationName";
+
+  public static final List<String> COLUMNS = Collections.unmodifiableList(Arrays.asList(
+      ORGANISATION_NAME, "firstName", "lastName", "email", "telephone"));
+
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  /**
+   * The maximum length of a CSV field, well above that of any valid value
+   */
+  public static final int MAX_FIELD_LENGTH = 1024;
+
+  private static final class DefaultValidator {
+    static final Validator INSTANCE = Validation.buildDefaultValidatorFactory().getValidator();
+  }
+
+  private final Validator validator;
+
+  private final ExecutorService executor;
+
+  private final int batchSize;
+
+  private final int maxInFlight;
+
+  /**
+   * Validates with a default {@link Validator}, built once and shared by all importers, in
+   * batches of {@link #DEFAULT_BATCH_SIZE}.
+   */
+  public CustomerImporter(ExecutorService executor) {
+    this(DefaultValidator.INSTANCE, executor, DEFAULT_BATCH_SIZE,
+        2 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param validator   thread-safe validator shared by the validation tasks
+   * @param executor    runs the validation tasks
+   * @param batchSize   rows per validation task, and the minimum number of contacts per
+   *                    written batch
+   * @param maxInFlight the number of validation tasks submitted ahead of the results being
+   *                    consumed
+   */
+  public CustomerImporter(Validator validator, ExecutorService executor, int batchSize,
+      int maxInFlight) {
+    if (batchSize < 1 || maxInFlight < 1) {
+      throw new IllegalArgumentException("batchSize and maxInFlight must be positive");
+    }
+    this.validator = validator;
+    this.executor = executor;
+    this.batchSize = batchSize;
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * Imports the CSV. The reader is not closed.
+   *
+   * @param errors receives each rejected or duplicate row, on the calling thread
+   * @throws IllegalArgumentException if the header is missing, malformed or lacks a column
+   * @throws RuntimeException         thrown by the writer or the validator, after which no
+   *                                  more batches are written
+   */
+  public ImportSummary importCsv(Reader csv, CustomerBatchWriter writer,
+      Consumer<RowError> errors) throws IOException {
+    CsvReader reader = new CsvReader(csv, MAX_FIELD_LENGTH);
+    int[] columns = columnIndexes(reader.next());
+    Run run = new Run(writer, errors);
+    Deque<Future<List<Row>>> inFlight = new ArrayDeque<>();
+    try {
+      List<Row> chunk = readChunk(reader, columns);
+      while (!chunk.isEmpty()) {
+        if (inFlight.size() == maxInFlight) {
+          run.consume(await(inFlight.removeFirst()));
+        }
+        List<Row> rows = chunk;
+        inFlight.addLast(executor.submit(() -> validate(rows)));
+        chunk = readChunk(reader, columns);
+      }
+      while (!inFlight.isEmpty()) {
+        run.consume(await(inFlight.removeFirst()));
+      }
+    } finally {
+      inFlight.forEach(f -> f.cancel(true));
+    }
+    return run.finish();
+  }
+
+  private static int[] columnIndexes(String[] header) {
+    if (header == null) {
+      throw new IllegalArgumentException("Missing header row");
+    }
+    int[] indexes = new int[COLUMNS.size()];
+    for (int i = 0; i < indexes.length; i++) {
+      indexes[i] = -1;
+      for (int j = 0; j < header.length; j++) {
+        if (header[j].trim().equalsIgnoreCase(COLUMNS.get(i))) {
+          indexes[i] = j;
+        }
+      }
+      if (indexes[i] == -1) {
+        throw new IllegalArgumentException("Missing column " + COLUMNS.get(i));
+      }
+    }
+    return indexes;
+  }
+
+  private List<Row> readChunk(CsvReader reader, int[] columns) throws IOException {
+    List<Row> chunk = new ArrayList<>(batchSize);
+    while (chunk.size() < batchSize) {
+      String[] record;
+      try {
+        record = reader.next();
+      } catch (IllegalArgumentException e) {
+        // the reader has skipped to the next line
+        chunk.add(new Row(reader.getLineNumber(), e.getMessage()));
+        continue;
+      }
+      if (record == null) {
+        break;
+      }
+      chunk.add(new Row(reader.getLineNumber(), record, columns));
+    }
+    return chunk;
+  }
+
+  private List<Row> validate(List<Row> rows) {
+    for (Row row : rows) {
+      if (row.contact == null) {
+        continue;
+      }
+      for (ConstraintViolation<CustomerInfo> v : validator.validateValue(CustomerInfo.class,
+          ORGANISATION_NAME, row.organisationName)) {
+        row.addError(ORGANISATION_NAME, v.getMessage());
+      }
+      for (ConstraintViolation<CustomerContact> v : validator.validate(row.contact)) {
+        row.addError(v.getPropertyPath().toString(), v.getMessage());
+      }
+    }
+    return rows;
+  }
+
+  private static List<Row> await(Future<List<Row>> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while validating");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /*
+   * A parsed row, which the validation task adds errors to
+   */
+  private static final class Row {
+
+    final long lineNumber;
+    final String organisationName;
+    final CustomerContact contact;
+    List<RowError> errors;
+
+    Row(long lineNumber, String[] record, int[] columns) {
+      this.lineNumber = lineNumber;
+      String[] values = new String[columns.length];
+      for (int i = 0; i < columns.length; i++) {
+        values[i] = columns[i] < record.length ? record[columns[i]] : null;
+      }
+      if (Arrays.asList(values).contains(null)) {
+        organisationName = null;
+        contact = null;
+        addError(null, "Missing columns, found only " + record.length);
+        return;
+      }
+      organisationName = values[0];
+      contact = new CustomerContact(values[1], values[2], values[3], values[4]);
+    }
+
+    /*
+     * A malformed record
+     */
+    Row(long lineNumber, String message) {
+      this.lineNumber = lineNumber;
+      organisationName = null;
+      contact = null;
+      addError(null, message);
+    }
+
+    void addError(String property, String message) {
+      if (errors == null) {
+        errors = new ArrayList<>(2);
+      }
+      errors.add(new RowError(lineNumber, property, message));
+    }
+  }
+
+  /*
+   * The state of one import, confined to the calling thread
+   */
+  private final class Run {
+
+    private final CustomerBatchWriter writer;
+    private final Consumer<RowError> errors;
+
+    private String organisationName;
+    private final Map<String, Row> contactsByEmail = new LinkedHashMap<>();
+
+    private final List<CustomerInfo> batch = new ArrayList<>();
+    private int batchContacts;
+
+    private long rowsRead;
+    private long rejectedRows;
+    private long duplicateRows;
+    private long contactsImported;
+    private long customersImported;
+    private long batchesWritten;
+
+    Run(CustomerBatchWriter writer, Consumer<RowError> errors) {
+      this.writer = writer;
+      this.errors = errors;
+    }
+
+    void consume(List<Row> rows) {
+      for (Row row : rows) {
+        rowsRead++;
+        if (row.errors != null) {
+          rejectedRows++;
+          row.errors.forEach(errors);
+        } else if (row.organisationName.equals(organisationName)) {
+          addContact(row);
+        } else if (organisationName != null
+            && row.organisationName.compareTo(organisationName) < 0) {
+          rejectedRows++;
+          errors.accept(new RowError(row.lineNumber, ORGANISATION_NAME,
+              "Rows must be sorted by organisation name, but '" + row.organisationName
+                  + "' follows '" + organisationName + "'"));
+        } else {
+          completeCustomer();
+          organisationName = row.organisationName;
+          addContact(row);
+        }
+      }
+    }
+
+    private void addContact(Row row) {
+      String email = row.contact.getEmail().toLowerCase(Locale.ROOT);
+      Row existing = contactsByEmail.get(email);
+      if (existing == null) {
+        contactsByEmail.put(email, row);
+        return;
+      }
+      Row kept = existing;
+      Row dropped = row;
+      if (row.contact.compareTo(existing.contact) < 0) {
+        kept = row;
+        dropped = existing;
+        contactsByEmail.put(email, row);
+      }
+      duplicateRows++;
+      errors.accept(new RowError(dropped.lineNumber, "email",
+          "Duplicate of the contact on line " + kept.lineNumber));
+    }
+
+    private void completeCustomer() {
+      if (organisationName == null) {
+        return;
+      }
+      CustomerInfo customer = new CustomerInfo(organisationName);
+      for (Row row : contactsByEmail.values()) {
+        customer.addContact(row.contact);
+      }
+      batch.add(customer);
+      batchContacts += contactsByEmail.size();
+      contactsImported += contactsByEmail.size();
+      customersImported++;
+      organisationName = null;
+      contactsByEmail.clear();
+      if (batchContacts >= batchSize) {
+        writeBatch();
+      }
+    }
+
+    private void writeBatch() {
+      writer.write(new ArrayList<>(batch));
+      batchesWritten++;
+      batch.clear();
+      batchContacts = 0;
+    }
+
+    ImportSummary finish() {
+      completeCustomer();
+      if (!batch.isEmpty()) {
+        writeBatch();
+      }
+      return new ImportSummary(rowsRead, rejectedRows, duplicateRows, contactsImported,
+          customersImported, batchesWritten);
+    }
+  }
+
+}
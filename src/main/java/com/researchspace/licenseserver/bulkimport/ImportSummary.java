@@ -0,0 +1,71 @@
+package com.researchspace.licenseserver.bulkimport;
+
+/**
+ * Counts of what a {@link CustomerImporter} run read and wrote.
+ */
+public final class ImportSummary {
+
+  private final long rowsRead;
+
+  private final long rejectedRows;
+
+  private final long duplicateRows;
+
+  private final long contactsImported;
+
+  private final long customersImported;
+
+  private final long batchesWritten;
+
+  ImportSummary(long rowsRead, long rejectedRows, long duplicateRows, long contactsImported,
+      long customersImported, long batchesWritten) {
+    this.rowsRead = rowsRead;
+    this.rejectedRows = rejectedRows;
+    this.duplicateRows = duplicateRows;
+    this.contactsImported = contactsImported;
+    this.customersImported = customersImported;
+    this.batchesWritten = batchesWritten;
+  }
+
+  /**
+   * Data rows read, excluding the header.
+   */
+  public long getRowsRead() {
+    return rowsRead;
+  }
+
+  /**
+   * Rows not imported because they were malformed or invalid.
+   */
+  public long getRejectedRows() {
+    return rejectedRows;
+  }
+
+  /**
+   * Valid rows not imported because another row of the same customer has the same email.
+   */
+  public long getDuplicateRows() {
+    return duplicateRows;
+  }
+
+  public long getContactsImported() {
+    return contactsImported;
+  }
+
+  public long getCustomersImported() {
+    return customersImported;
+  }
+
+  public long getBatchesWritten() {
+    return batchesWritten;
+  }
+
+  @Override
+  public String toString() {
+    return "ImportSummary [rowsRead=" + rowsRead + ", rejectedRows=" + rejectedRows
+        + ", duplicateRows=" + duplicateRows + ", contactsImported=" + contactsImported
+        + ", customersImported=" + customersImported + ", batchesWritten=" + batchesWritten
+        + "]";
+  }
+
+}
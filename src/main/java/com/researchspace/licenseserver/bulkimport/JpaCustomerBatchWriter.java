@@ -0,0 +1,41 @@
+package com.researchspace.licenseserver.bulkimport;
+
+import com.researchspace.licenseserver.model.CustomerInfo;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+
+/**
+ * Persists each batch of customers, with their contacts by cascade, in one transaction. Set
+ * <code>hibernate.jdbc.batch_size</code> and <code>hibernate.order_inserts</code> for the inserts
+ * to be sent as JDBC batches; pooled-lo ids avoid a sequence call per row.
+ * <p>
+ * The customers were validated on import, so re-validation on persist can be turned off with
+ * <code>javax.persistence.validation.mode=none</code>.
+ */
+public class JpaCustomerBatchWriter implements CustomerBatchWriter {
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  public JpaCustomerBatchWriter(EntityManagerFactory entityManagerFactory) {
+    this.entityManagerFactory = entityManagerFactory;
+  }
+
+  @Override
+  public void write(List<CustomerInfo> customers) {
+    EntityManager em = entityManagerFactory.createEntityManager();
+    EntityTransaction tx = em.getTransaction();
+    try {
+      tx.begin();
+      customers.forEach(em::persist);
+      tx.commit();
+    } finally {
+      if (tx.isActive()) {
+        tx.rollback();
+      }
+      em.close();
+    }
+  }
+
+}
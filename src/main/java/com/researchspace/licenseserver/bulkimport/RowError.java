@@ -0,0 +1,44 @@
+package com.researchspace.licenseserver.bulkimport;
+
+/**
+ * A problem with one row of an import, which was not imported.
+ */
+public final class RowError {
+
+  private final long lineNumber;
+
+  private final String property;
+
+  private final String message;
+
+  public RowError(long lineNumber, String property, String message) {
+    this.lineNumber = lineNumber;
+    this.property = property;
+    this.message = message;
+  }
+
+  /**
+   * The line of the input the row starts on, 1-based and counting the header.
+   */
+  public long getLineNumber() {
+    return lineNumber;
+  }
+
+  /**
+   * The offending property, e.g. <code>email</code>, or <code>null</code> if the row as a whole
+   * is invalid.
+   */
+  public String getProperty() {
+    return property;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String toString() {
+    return "line " + lineNumber + (property == null ? "" : ", " + property) + ": " + message;
+  }
+
+}
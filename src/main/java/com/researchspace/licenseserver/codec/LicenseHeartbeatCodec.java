@@ -0,0 +1,318 @@
+package com.researchspace.licenseserver.codec;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.researchspace.licenseserver.model.License;
+import com.researchspace.licenseserver.model.ServerInfo;
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+/**
+ * Versioned binary encoding of the {@link License} and {@link ServerInfo} state exchanged on
+ * check-in, as a compact alternative to JSON.
+ * <p>
+ * The layout is big-endian, with a fixed-size header followed by length-prefixed UTF-8 strings:
+ *
+ * <pre>
+ *  0  int   magic 'RSLH'
+ *  4  byte  version
+ *  5  byte  flags: revoked, and which of the nullable fields are present
+ *  6  short header length, i.e. the offset of the first string
+ *  8  long  activation date, epoch millis
+ * 16  long  expiry date, epoch millis
+ * 24  long  license id
+ * 32  long  server id
+ * 40  int   total user seats
+ * 44  int   total free sysadmin seats
+ * 48  int   total free RSpace admin seats
+ * 52  int   used seat count
+ * 56  strings: license unique key, server unique id, server URL, server MAC id, API key;
+ *     each an int byte length (-1 for null) followed by the bytes
+ * </pre>
+ *
+ * Fields can be read directly from an encoded buffer with the static accessors, e.g.
+ * {@link #usedSeatCount(ByteBuffer)}, without decoding the rest of the message. Accessors and
+ * {@link #decode(ByteBuffer)} read relative to the buffer's position and do not move it.
+ * <p>
+ * Customer details, the creation date and <code>ServerInfo.serverInformation</code> are not part
+ * of the exchange and are not encoded.
+ */
+public final class LicenseHeartbeatCodec {
+
+  public static final int MAGIC = 0x52534C48;
+
+  public static final byte VERSION = 1;
+
+  static final int FLAGS_OFFSET = 5;
+  static final int HEADER_LENGTH_OFFSET = 6;
+  static final int ACTIVATION_OFFSET = 8;
+  static final int EXPIRY_OFFSET = 16;
+  static final int ID_OFFSET = 24;
+  static final int SERVER_ID_OFFSET = 32;
+  static final int TOTAL_USER_SEATS_OFFSET = 40;
+  static final int TOTAL_FREE_SYSADMIN_OFFSET = 44;
+  static final int TOTAL_FREE_RSPACEADMIN_OFFSET = 48;
+  static final int USED_SEAT_COUNT_OFFSET = 52;
+  static final int HEADER_LENGTH = 56;
+
+  private static final int REVOKED = 1;
+  private static final int HAS_ACTIVATION = 1 << 1;
+  private static final int HAS_EXPIRY = 1 << 2;
+  private static final int HAS_ID = 1 << 3;
+  private static final int HAS_SERVER = 1 << 4;
+  private static final int HAS_SERVER_ID = 1 << 5;
+
+  private static final int UNIQUE_KEY = 0;
+  private static final int SERVER_UNIQUE_ID = 1;
+  private static final int SERVER_URL = 2;
+  private static final int SERVER_MAC_ID = 3;
+  private static final int API_KEY = 4;
+  private static final int STRING_COUNT = 5;
+
+  private LicenseHeartbeatCodec() {
+  }
+
+  /**
+   * Encodes the license and its server into a new buffer, positioned at 0.
+   *
+   * @param apiKey the <code>rs-apikey</code> value to send along, can be <code>null</code>
+   */
+  public static ByteBuffer encode(License license, String apiKey) {
+    byte[][] strings = strings(license, apiKey);
+    ByteBuffer buffer = ByteBuffer.allocate(encodedLength(strings));
+    write(license, strings, buffer);
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Encodes the license and its server into the buffer at its position, advancing the position
+   * past the message.
+   *
+   * @throws java.nio.BufferOverflowException if the buffer does not have enough space remaining
+   */
+  public static void encode(License license, String apiKey, ByteBuffer target) {
+    write(license, strings(license, apiKey), target);
+  }
+
+  /**
+   * The number of bytes the license and its server encode to.
+   */
+  public static int encodedLength(License license, String apiKey) {
+    return encodedLength(strings(license, apiKey));
+  }
+
+  private static byte[][] strings(License license, String apiKey) {
+    ServerInfo server = license.getServerInfo();
+    return new byte[][]{
+        utf8(license.getUniqueKey()),
+        server == null ? null : utf8(server.getUniqueId()),
+        server == null ? null : utf8(server.getUrl()),
+        server == null ? null : utf8(server.getMacId()),
+        utf8(apiKey)};
+  }
+
+  private static byte[] utf8(String s) {
+    return s == null ? null : s.getBytes(UTF_8);
+  }
+
+  private static int encodedLength(byte[][] strings) {
+    int length = HEADER_LENGTH;
+    for (byte[] s : strings) {
+      length += Integer.BYTES + (s == null ? 0 : s.length);
+    }
+    return length;
+  }
+
+  private static void write(License license, byte[][] strings, ByteBuffer target) {
+    ServerInfo server = license.getServerInfo();
+    int flags = 0;
+    flags |= license.isRevoked() ? REVOKED : 0;
+    flags |= license.getActivationDate() != null ? HAS_ACTIVATION : 0;
+    flags |= license.getExpiryDate() != null ? HAS_EXPIRY : 0;
+    flags |= license.getId() != null ? HAS_ID : 0;
+    flags |= server != null ? HAS_SERVER : 0;
+    flags |= server != null && server.getId() != null ? HAS_SERVER_ID : 0;
+
+    target.putInt(MAGIC);
+    target.put(VERSION);
+    target.put((byte) flags);
+    target.putShort((short) HEADER_LENGTH);
+    target.putLong((flags & HAS_ACTIVATION) == 0 ? 0 : license.activationMillis());
+    target.putLong((flags & HAS_EXPIRY) == 0 ? 0 : license.expiryMillis());
+    target.putLong(license.getId() == null ? 0 : license.getId());
+    target.putLong((flags & HAS_SERVER_ID) == 0 ? 0 : server.getId());
+    target.putInt(license.getTotalUserSeats());
+    target.putInt(license.getTotalFreeSysadmin());
+    target.putInt(license.getTotalFreeRSpaceadmin());
+    target.putInt(license.getUsedSeatCount());
+    for (byte[] s : strings) {
+      if (s == null) {
+        target.putInt(-1);
+      } else {
+        target.putInt(s.length);
+        target.put(s);
+      }
+    }
+  }
+
+  /**
+   * Materializes the license and, if present, its server from an encoded message.
+   *
+   * @throws IllegalArgumentException if the buffer does not hold a valid message of a supported
+   *                                  version, or its values violate the invariants of
+   *                                  {@link License}
+   */
+  public static License decode(ByteBuffer buffer) {
+    int flags = flags(buffer);
+    // fail on truncated messages even though the API key is not decoded
+    string(buffer, STRING_COUNT);
+    License license = new License();
+    license.setUniqueKey(uniqueKey(buffer));
+    if ((flags & HAS_ACTIVATION) != 0) {
+      license.setActivationDate(new Date(activationMillis(buffer)));
+    }
+    if ((flags & HAS_EXPIRY) != 0) {
+      license.setExpiryDate(new Date(expiryMillis(buffer)));
+    }
+    if ((flags & HAS_ID) != 0) {
+      license.setId(getLong(buffer, ID_OFFSET));
+    }
+    license.setRevoked((flags & REVOKED) != 0);
+    license.setTotalUserSeats(totalUserSeats(buffer));
+    license.setTotalFreeSysadmin(totalFreeSysadmin(buffer));
+    license.setTotalFreeRSpaceadmin(totalFreeRSpaceadmin(buffer));
+    license.setUsedSeatCount(usedSeatCount(buffer));
+    if ((flags & HAS_SERVER) != 0) {
+      ServerInfo server = new ServerInfo(serverUniqueId(buffer), string(buffer, SERVER_URL));
+      server.setMacId(string(buffer, SERVER_MAC_ID));
+      if ((flags & HAS_SERVER_ID) != 0) {
+        server.setId(getLong(buffer, SERVER_ID_OFFSET));
+      }
+      license.setServerInfo(server);
+    }
+    return license;
+  }
+
+  public static boolean isRevoked(ByteBuffer buffer) {
+    return (flags(buffer) & REVOKED) != 0;
+  }
+
+  /**
+   * The activation date in epoch millis, or {@link Long#MAX_VALUE} if not set, as
+   * {@link License#activationMillis()}.
+   */
+  public static long activationMillis(ByteBuffer buffer) {
+    return (flags(buffer) & HAS_ACTIVATION) == 0 ? Long.MAX_VALUE
+        : getLong(buffer, ACTIVATION_OFFSET);
+  }
+
+  /**
+   * The expiry date in epoch millis, or {@link Long#MIN_VALUE} if not set, as
+   * {@link License#expiryMillis()}.
+   */
+  public static long expiryMillis(ByteBuffer buffer) {
+    return (flags(buffer) & HAS_EXPIRY) == 0 ? Long.MIN_VALUE : getLong(buffer, EXPIRY_OFFSET);
+  }
+
+  /**
+   * As {@link License#isActive(long)}, without decoding the license.
+   */
+  public static boolean isActive(ByteBuffer buffer, long nowMillis) {
+    return nowMillis > activationMillis(buffer) && nowMillis < expiryMillis(buffer)
+        && !isRevoked(buffer);
+  }
+
+  public static int totalUserSeats(ByteBuffer buffer) {
+    return getInt(buffer, TOTAL_USER_SEATS_OFFSET);
+  }
+
+  public static int totalFreeSysadmin(ByteBuffer buffer) {
+    return getInt(buffer, TOTAL_FREE_SYSADMIN_OFFSET);
+  }
+
+  public static int totalFreeRSpaceadmin(ByteBuffer buffer) {
+    return getInt(buffer, TOTAL_FREE_RSPACEADMIN_OFFSET);
+  }
+
+  public static int usedSeatCount(ByteBuffer buffer) {
+    return getInt(buffer, USED_SEAT_COUNT_OFFSET);
+  }
+
+  public static String uniqueKey(ByteBuffer buffer) {
+    return string(buffer, UNIQUE_KEY);
+  }
+
+  public static String serverUniqueId(ByteBuffer buffer) {
+    return string(buffer, SERVER_UNIQUE_ID);
+  }
+
+  public static String apiKey(ByteBuffer buffer) {
+    return string(buffer, API_KEY);
+  }
+
+  /*
+   * Validates the header and returns the flags
+   */
+  private static int flags(ByteBuffer buffer) {
+    int base = buffer.position();
+    if (buffer.remaining() < HEADER_LENGTH) {
+      throw new IllegalArgumentException("Message too short: " + buffer.remaining() + " bytes");
+    }
+    if (buffer.getInt(base) != MAGIC) {
+      throw new IllegalArgumentException("Not a license heartbeat message");
+    }
+    if (buffer.get(base + 4) != VERSION) {
+      throw new IllegalArgumentException("Unsupported version " + buffer.get(base + 4));
+    }
+    return buffer.get(base + FLAGS_OFFSET) & 0xFF;
+  }
+
+  private static long getLong(ByteBuffer buffer, int offset) {
+    flags(buffer);
+    return buffer.getLong(buffer.position() + offset);
+  }
+
+  private static int getInt(ByteBuffer buffer, int offset) {
+    flags(buffer);
+    return buffer.getInt(buffer.position() + offset);
+  }
+
+  /*
+   * Decodes the index-th string, skipping over the preceding ones. With index STRING_COUNT, only
+   * checks that all strings are within the buffer.
+   */
+  private static String string(ByteBuffer buffer, int index) {
+    flags(buffer);
+    int base = buffer.position();
+    int offset = base + (buffer.getShort(base + HEADER_LENGTH_OFFSET) & 0xFFFF);
+    int limit = buffer.limit();
+    for (int i = 0; i < STRING_COUNT; i++) {
+      if (offset < base + HEADER_LENGTH || offset > limit - Integer.BYTES) {
+        throw new IllegalArgumentException("Message truncated");
+      }
+      int length = buffer.getInt(offset);
+      offset += Integer.BYTES;
+      if (length < -1 || length > limit - offset) {
+        throw new IllegalArgumentException("Invalid string length " + length);
+      }
+      if (i == index) {
+        return length == -1 ? null : utf8String(buffer, offset, length);
+      }
+      offset += Math.max(length, 0);
+    }
+    return null;
+  }
+
+  private static String utf8String(ByteBuffer buffer, int offset, int length) {
+    if (buffer.hasArray()) {
+      return new String(buffer.array(), buffer.arrayOffset() + offset, length, UTF_8);
+    }
+    byte[] bytes = new byte[length];
+    ByteBuffer view = buffer.duplicate();
+    view.position(offset);
+    view.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+}
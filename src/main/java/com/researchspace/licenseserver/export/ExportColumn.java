@@ -0,0 +1,91 @@
+package com.researchspace.licenseserver.export;
+
+import com.researchspace.licenseserver.model.CustomerContact;
+import com.researchspace.licenseserver.model.CustomerInfo;
+import com.researchspace.licenseserver.model.LazyAssociations;
+import com.researchspace.licenseserver.model.License;
+import com.researchspace.licenseserver.model.ServerInfo;
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * The flattened columns of an export row, one per license, in export order. Dates are exported
+ * as ISO-8601 instants in UTC; the customer and server columns are empty if the license has none.
+ * <p>
+ * The customer and server must be loaded, e.g. with the {@link License#GRAPH_SUMMARY} entity
+ * graph; the contacts are loaded on demand, so export while the entity manager is open.
+ */
+public enum ExportColumn {
+  ID("id", License::getId),
+  UNIQUE_KEY("uniqueKey", License::getUniqueKey),
+  CREATION_DATE("creationDate", l -> iso(l.getCreationDate())),
+  ACTIVATION_DATE("activationDate", l -> iso(l.getActivationDate())),
+  EXPIRY_DATE("expiryDate", l -> iso(l.getExpiryDate())),
+  REVOKED("revoked", License::isRevoked),
+  TOTAL_USER_SEATS("totalUserSeats", License::getTotalUserSeats),
+  TOTAL_FREE_SYSADMIN("totalFreeSysadmin", License::getTotalFreeSysadmin),
+  TOTAL_FREE_RSPACEADMIN("totalFreeRSpaceadmin", License::getTotalFreeRSpaceadmin),
+  USED_SEAT_COUNT("usedSeatCount", License::getUsedSeatCount),
+  CUSTOMER_ID("customerId", l -> customer(l, CustomerInfo::getId)),
+  ORGANISATION_NAME("organisationName", l -> customer(l, CustomerInfo::getOrganisationName)),
+  /**
+   * In CSV, the contacts as <code>First Last &lt;email&gt;</code> separated by <code>"; "</code>.
+   * In NDJSON, an array of contact objects.
+   */
+  CONTACTS("contacts", l -> customer(l, ExportColumn::contacts)),
+  SERVER_UNIQUE_ID("serverUniqueId", l -> server(l, ServerInfo::getUniqueId)),
+  SERVER_URL("serverUrl", l -> server(l, ServerInfo::getUrl)),
+  SERVER_MAC_ID("serverMacId", l -> server(l, ServerInfo::getMacId));
+
+  private final String header;
+
+  private final Function<License, Object> value;
+
+  ExportColumn(String header, Function<License, Object> value) {
+    this.header = header;
+    this.value = value;
+  }
+
+  /**
+   * The CSV header and NDJSON field name.
+   */
+  public String getHeader() {
+    return header;
+  }
+
+  /**
+   * The value of the column for the license: a String, Number, Boolean or <code>null</code>.
+   */
+  public Object value(License license) {
+    return value.apply(license);
+  }
+
+  private static String iso(Date date) {
+    return date == null ? null : date.toInstant().toString();
+  }
+
+  private static Object customer(License license, Function<CustomerInfo, Object> value) {
+    CustomerInfo customer = LazyAssociations.requireLoaded(license.getCustomerInfo(),
+        "customerInfo", License.GRAPH_SUMMARY);
+    return customer == null ? null : value.apply(customer);
+  }
+
+  private static Object server(License license, Function<ServerInfo, Object> value) {
+    ServerInfo server = LazyAssociations.requireLoaded(license.getServerInfo(), "serverInfo",
+        License.GRAPH_SUMMARY);
+    return server == null ? null : value.apply(server);
+  }
+
+  private static String contacts(CustomerInfo customer) {
+    StringBuilder sb = new StringBuilder();
+    for (CustomerContact contact : customer.getContacts()) {
+      if (sb.length() > 0) {
+        sb.append("; ");
+      }
+      sb.append(contact.getFirstName()).append(' ').append(contact.getLastName())
+          .append(" <").append(contact.getEmail()).append('>');
+    }
+    return sb.toString();
+  }
+
+}
@@ -0,0 +1,209 @@
+package com.researchspace.licenseserver.export;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.researchspace.licenseserver.model.CustomerContact;
+import com.researchspace.licenseserver.model.CustomerInfo;
+import com.researchspace.licenseserver.model.License;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes licenses with their customer, contacts and server as one flattened row per license,
+ * see {@link ExportColumn}, in NDJSON or CSV, optionally gzipped.
+ * <p>
+ * Rows are written as they are read from the iterator or stream and nothing is retained, so
+ * memory use is bounded by a single row plus fixed buffers, however many licenses are exported.
+ * When exporting from JPA, feed a lazily fetched result stream, e.g. from
+ * <code>TypedQuery.getResultStream()</code> with the {@link License#GRAPH_SUMMARY} fetch graph,
+ * which joins only the to-one customer and server, so each license is one result row. Avoid
+ * {@link License#GRAPH_ADMIN_VIEW}: fetch-joining the contacts collection repeats each license
+ * once per contact, and scrolling must then reassemble licenses from consecutive rows. The
+ * contacts are loaded per customer while exporting, in batches if
+ * <code>hibernate.default_batch_fetch_size</code> is set, so keep the entity manager open and
+ * clear it every so many rows so the persistence context does not grow either.
+ */
+public class LicenseExporter {
+
+  public enum Format {
+    /** One JSON object per line, written with Jackson's streaming generator. */
+    NDJSON,
+    /** RFC 4180 CSV with a header row. */
+    CSV
+  }
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final Format format;
+
+  private final boolean gzip;
+
+  public LicenseExporter(Format format, boolean gzip) {
+    this.format = format;
+    this.gzip = gzip;
+  }
+
+  /**
+   * Exports the licenses to the stream, which is flushed but not closed.
+   *
+   * @return the number of rows written
+   */
+  public long export(Stream<License> licenses, OutputStream out) throws IOException {
+    return export(licenses.iterator(), out);
+  }
+
+  /**
+   * Exports the licenses to the stream, which is flushed but not closed.
+   *
+   * @return the number of rows written
+   */
+  public long export(Iterator<License> licenses, OutputStream out) throws IOException {
+    GzipStream compressed = gzip ? new GzipStream(out) : null;
+    try {
+      Writer writer = new BufferedWriter(
+          new OutputStreamWriter(compressed != null ? compressed : out, UTF_8), BUFFER_SIZE);
+      long rows = format == Format.NDJSON ? writeNdjson(licenses, writer)
+          : writeCsv(licenses, writer);
+      writer.flush();
+      if (compressed != null) {
+        // writes the trailer without closing the caller's stream
+        compressed.finish();
+      }
+      out.flush();
+      return rows;
+    } finally {
+      if (compressed != null) {
+        compressed.end();
+      }
+    }
+  }
+
+  /*
+   * Gzip stream whose native Deflater can be released without closing the underlying stream
+   */
+  private static final class GzipStream extends GZIPOutputStream {
+
+    GzipStream(OutputStream out) throws IOException {
+      super(out, BUFFER_SIZE);
+    }
+
+    void end() {
+      def.end();
+    }
+  }
+
+  private long writeNdjson(Iterator<License> licenses, Writer writer) throws IOException {
+    JsonGenerator gen = JSON_FACTORY.createGenerator(writer);
+    gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    gen.setRootValueSeparator(null);
+    long rows = 0;
+    while (licenses.hasNext()) {
+      License license = licenses.next();
+      gen.writeStartObject();
+      for (ExportColumn column : ExportColumn.values()) {
+        gen.writeFieldName(column.getHeader());
+        if (column == ExportColumn.CONTACTS) {
+          writeContacts(license.getCustomerInfo(), gen);
+        } else {
+          writeValue(column.value(license), gen);
+        }
+      }
+      gen.writeEndObject();
+      gen.writeRaw('\n');
+      rows++;
+    }
+    gen.flush();
+    return rows;
+  }
+
+  private static void writeContacts(CustomerInfo customer, JsonGenerator gen)
+      throws IOException {
+    if (customer == null) {
+      gen.writeNull();
+      return;
+    }
+    gen.writeStartArray();
+    for (CustomerContact contact : customer.getContacts()) {
+      gen.writeStartObject();
+      gen.writeStringField("firstName", contact.getFirstName());
+      gen.writeStringField("lastName", contact.getLastName());
+      gen.writeStringField("email", contact.getEmail());
+      gen.writeStringField("telephone", contact.getTelephone());
+      gen.writeEndObject();
+    }
+    gen.writeEndArray();
+  }
+
+  private static void writeValue(Object value, JsonGenerator gen) throws IOException {
+    if (value == null) {
+      gen.writeNull();
+    } else if (value instanceof Boolean) {
+      gen.writeBoolean((Boolean) value);
+    } else if (value instanceof Long) {
+      gen.writeNumber((Long) value);
+    } else if (value instanceof Integer) {
+      gen.writeNumber((Integer) value);
+    } else {
+      gen.writeString(value.toString());
+    }
+  }
+
+  private long writeCsv(Iterator<License> licenses, Writer writer) throws IOException {
+    ExportColumn[] columns = ExportColumn.values();
+    for (int i = 0; i < columns.length; i++) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      writer.write(columns[i].getHeader());
+    }
+    writer.write("\r\n");
+    long rows = 0;
+    while (licenses.hasNext()) {
+      License license = licenses.next();
+      for (int i = 0; i < columns.length; i++) {
+        if (i > 0) {
+          writer.write(',');
+        }
+        Object value = columns[i].value(license);
+        if (value != null) {
+          writeCsvField(value.toString(), writer);
+        }
+      }
+      writer.write("\r\n");
+      rows++;
+    }
+    return rows;
+  }
+
+  static void writeCsvField(String value, Writer writer) throws IOException {
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      writer.write(value);
+      return;
+    }
+    writer.write('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        writer.write('"');
+      }
+      writer.write(c);
+    }
+    writer.write('"');
+  }
+
+}
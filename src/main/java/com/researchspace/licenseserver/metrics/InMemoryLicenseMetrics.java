@@ -0,0 +1,90 @@
+package com.researchspace.licenseserver.metrics;
+
+import com.researchspace.licenseserver.model.SeatRole;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps measurements in memory, in striped {@link LongAdder} counters and
+ * {@link LatencyHistogram}s, so concurrent license checks do not contend on shared counters.
+ * {@link #snapshot()} sums the counters without stopping recording; a snapshot taken during
+ * recording is consistent per counter but not across counters.
+ */
+public class InMemoryLicenseMetrics implements LicenseMetrics {
+
+  private final LongAdder[] permits =
+      new LongAdder[SeatRole.COUNT * PermitOutcome.values().length];
+
+  private final ConcurrentHashMap<String, LongAdder> exhaustedByLicense =
+      new ConcurrentHashMap<>();
+
+  private final LongAdder activations = new LongAdder();
+
+  private final LongAdder deactivations = new LongAdder();
+
+  private final ConcurrentHashMap<String, LongAdder> validationFailures =
+      new ConcurrentHashMap<>();
+
+  private final EnumMap<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+
+  public InMemoryLicenseMetrics() {
+    for (int i = 0; i < permits.length; i++) {
+      permits[i] = new LongAdder();
+    }
+    for (Operation operation : Operation.values()) {
+      latencies.put(operation, new LatencyHistogram());
+    }
+  }
+
+  @Override
+  public void permitsChecked(String licenseUniqueKey, SeatRole role, PermitOutcome outcome) {
+    permits[LicenseMetricsSnapshot.permitsIndex(role, outcome)].increment();
+    if (outcome == PermitOutcome.EXHAUSTED && licenseUniqueKey != null) {
+      exhaustedByLicense.computeIfAbsent(licenseUniqueKey, k -> new LongAdder()).increment();
+    }
+  }
+
+  @Override
+  public void activated(String licenseUniqueKey) {
+    activations.increment();
+  }
+
+  @Override
+  public void deactivated(String licenseUniqueKey) {
+    deactivations.increment();
+  }
+
+  @Override
+  public void validationFailed(Class<?> entityType, String property) {
+    validationFailures.computeIfAbsent(entityType.getSimpleName() + "." + property,
+        k -> new LongAdder()).increment();
+  }
+
+  @Override
+  public void latency(Operation operation, long nanos) {
+    latencies.get(operation).record(nanos);
+  }
+
+  public LicenseMetricsSnapshot snapshot() {
+    long[] permitCounts = new long[permits.length];
+    for (int i = 0; i < permits.length; i++) {
+      permitCounts[i] = permits[i].sum();
+    }
+    EnumMap<Operation, LatencyHistogram.Snapshot> latencySnapshots =
+        new EnumMap<>(Operation.class);
+    latencies.forEach((operation, histogram) -> latencySnapshots.put(operation,
+        histogram.snapshot()));
+    return new LicenseMetricsSnapshot(permitCounts, sums(exhaustedByLicense), activations.sum(),
+        deactivations.sum(), sums(validationFailures), latencySnapshots);
+  }
+
+  private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+    Map<String, Long> sums = new HashMap<>();
+    counters.forEach((key, counter) -> sums.put(key, counter.sum()));
+    return sums;
+  }
+
+}
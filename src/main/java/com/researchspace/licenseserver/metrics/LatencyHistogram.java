@@ -0,0 +1,114 @@
+package com.researchspace.licenseserver.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies with fixed power-of-two buckets, from 256 ns up to about 1 s plus an
+ * overflow bucket. Recording is a few bit operations and a striped increment, so it does not
+ * contend between threads; {@link #snapshot()} sums the stripes without blocking recorders.
+ */
+public final class LatencyHistogram {
+
+  private static final int MIN_SHIFT = 8;
+  private static final int MAX_SHIFT = 30;
+
+  /**
+   * Number of buckets, including the overflow bucket.
+   */
+  public static final int BUCKETS = MAX_SHIFT - MIN_SHIFT + 2;
+
+  private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+  private final LongAdder totalNanos = new LongAdder();
+
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Upper bound, inclusive, of the bucket in nanos, or {@link Long#MAX_VALUE} for the overflow
+   * bucket.
+   */
+  public static long upperBoundNanos(int bucket) {
+    return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << (MIN_SHIFT + bucket);
+  }
+
+  static int bucket(long nanos) {
+    if (nanos <= 1L << MIN_SHIFT) {
+      return 0;
+    }
+    int shift = 64 - Long.numberOfLeadingZeros(nanos - 1);
+    return Math.min(shift - MIN_SHIFT, BUCKETS - 1);
+  }
+
+  public void record(long nanos) {
+    counts[bucket(Math.max(nanos, 0))].increment();
+    totalNanos.add(Math.max(nanos, 0));
+  }
+
+  public Snapshot snapshot() {
+    long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts[i].sum();
+    }
+    return new Snapshot(snapshot, totalNanos.sum());
+  }
+
+  /**
+   * Bucket counts at one point in time. Taken while recording continues, so it may include part
+   * of the concurrent recordings.
+   */
+  public static final class Snapshot {
+
+    private final long[] counts;
+    private final long totalNanos;
+    private final long count;
+
+    private Snapshot(long[] counts, long totalNanos) {
+      this.counts = counts;
+      this.totalNanos = totalNanos;
+      long sum = 0;
+      for (long c : counts) {
+        sum += c;
+      }
+      this.count = sum;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getCount(int bucket) {
+      return counts[bucket];
+    }
+
+    /**
+     * Mean latency in nanos, or 0 if nothing was recorded.
+     */
+    public double getMeanNanos() {
+      return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile, e.g. 99 for p99, or 0 if nothing
+     * was recorded.
+     */
+    public long percentileUpperBoundNanos(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      long rank = (long) Math.ceil(count * percentile / 100);
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= Math.max(rank, 1)) {
+          return upperBoundNanos(i);
+        }
+      }
+      return upperBoundNanos(BUCKETS - 1);
+    }
+  }
+
+}
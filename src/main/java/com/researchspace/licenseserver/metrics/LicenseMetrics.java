@@ -0,0 +1,65 @@
+package com.researchspace.licenseserver.metrics;
+
+import com.researchspace.licenseserver.model.SeatRole;
+
+/**
+ * Receives measurements of license checks, as reported by a {@link MeteredLicenseChecker}.
+ * Implementations are called on the hot path and must be cheap and thread-safe; all methods do
+ * nothing by default, so an implementation only overrides what it records.
+ *
+ * @see InMemoryLicenseMetrics
+ */
+public interface LicenseMetrics {
+
+  /**
+   * Discards all measurements.
+   */
+  LicenseMetrics NOOP = new LicenseMetrics() {
+  };
+
+  /**
+   * How a <code>permits</code> check turned out.
+   */
+  enum PermitOutcome {
+    /** At least one more account can be created. */
+    AVAILABLE,
+    /** The seat limit of the role has been reached or exceeded. */
+    EXHAUSTED,
+    /** The license is not active. */
+    INACTIVE
+  }
+
+  /**
+   * The timed operations.
+   */
+  enum Operation {
+    IS_ACTIVE, PERMITS, VALIDATION
+  }
+
+  default void permitsChecked(String licenseUniqueKey, SeatRole role, PermitOutcome outcome) {
+  }
+
+  /**
+   * A license seen inactive by the previous check is active.
+   */
+  default void activated(String licenseUniqueKey) {
+  }
+
+  /**
+   * A license seen active by the previous check is no longer active.
+   */
+  default void deactivated(String licenseUniqueKey) {
+  }
+
+  /**
+   * Bean Validation rejected a property of an entity.
+   *
+   * @param property the property path, e.g. <code>contacts[].email</code>
+   */
+  default void validationFailed(Class<?> entityType, String property) {
+  }
+
+  default void latency(Operation operation, long nanos) {
+  }
+
+}
@@ -0,0 +1,68 @@
+package com.researchspace.licenseserver.metrics;
+
+import com.researchspace.licenseserver.metrics.LicenseMetrics.Operation;
+import com.researchspace.licenseserver.metrics.LicenseMetrics.PermitOutcome;
+import com.researchspace.licenseserver.model.SeatRole;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Point-in-time copy of the counters of an {@link InMemoryLicenseMetrics}.
+ */
+public final class LicenseMetricsSnapshot {
+
+  private final long[] permits;
+  private final Map<String, Long> exhaustedByLicense;
+  private final long activations;
+  private final long deactivations;
+  private final Map<String, Long> validationFailures;
+  private final EnumMap<Operation, LatencyHistogram.Snapshot> latencies;
+
+  LicenseMetricsSnapshot(long[] permits, Map<String, Long> exhaustedByLicense, long activations,
+      long deactivations, Map<String, Long> validationFailures,
+      EnumMap<Operation, LatencyHistogram.Snapshot> latencies) {
+    this.permits = permits;
+    this.exhaustedByLicense = Collections.unmodifiableMap(exhaustedByLicense);
+    this.activations = activations;
+    this.deactivations = deactivations;
+    this.validationFailures = Collections.unmodifiableMap(validationFailures);
+    this.latencies = latencies;
+  }
+
+  static int permitsIndex(SeatRole role, PermitOutcome outcome) {
+    return role.ordinal() * PermitOutcome.values().length + outcome.ordinal();
+  }
+
+  public long getPermits(SeatRole role, PermitOutcome outcome) {
+    return permits[permitsIndex(role, outcome)];
+  }
+
+  /**
+   * Number of {@link PermitOutcome#EXHAUSTED} checks per license unique key, i.e. which
+   * customers run into their limits.
+   */
+  public Map<String, Long> getExhaustedByLicense() {
+    return exhaustedByLicense;
+  }
+
+  public long getActivations() {
+    return activations;
+  }
+
+  public long getDeactivations() {
+    return deactivations;
+  }
+
+  /**
+   * Number of validation failures per <code>EntitySimpleName.propertyPath</code>.
+   */
+  public Map<String, Long> getValidationFailures() {
+    return validationFailures;
+  }
+
+  public LatencyHistogram.Snapshot getLatency(Operation operation) {
+    return latencies.get(operation);
+  }
+
+}
@@ -0,0 +1,95 @@
+package com.researchspace.licenseserver.metrics;
+
+import com.researchspace.licenseserver.metrics.LicenseMetrics.Operation;
+import com.researchspace.licenseserver.metrics.LicenseMetrics.PermitOutcome;
+import com.researchspace.licenseserver.model.License;
+import com.researchspace.licenseserver.model.SeatRole;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+/**
+ * Runs license checks and validation, reporting outcomes and latencies to a
+ * {@link LicenseMetrics}.
+ * <p>
+ * Activity transitions are detected per license unique key, against the result of the previous
+ * {@link #isActive(License, long)} call for the same license; the first check of a license is
+ * not a transition. Metrics are keyed by unique key and no association is read, so licenses
+ * loaded with the {@link License#GRAPH_CHECK} entity graph suffice, even once detached.
+ */
+public class MeteredLicenseChecker {
+
+  private final LicenseMetrics metrics;
+
+  private final ConcurrentHashMap<String, Boolean> lastActive = new ConcurrentHashMap<>();
+
+  public MeteredLicenseChecker(LicenseMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * As {@link License#isActive(long)}.
+   */
+  public boolean isActive(License license, long nowMillis) {
+    long start = System.nanoTime();
+    boolean active = license.isActive(nowMillis);
+    metrics.latency(Operation.IS_ACTIVE, System.nanoTime() - start);
+    String uniqueKey = license.getUniqueKey();
+    if (uniqueKey != null) {
+      Boolean previous = lastActive.put(uniqueKey, active);
+      if (previous != null && previous != active) {
+        if (active) {
+          metrics.activated(uniqueKey);
+        } else {
+          metrics.deactivated(uniqueKey);
+        }
+      }
+    }
+    return active;
+  }
+
+  /**
+   * As {@link License#permits(SeatRole, int, long)}.
+   */
+  public int permits(License license, SeatRole role, int currEnabledUsersInRole,
+      long nowMillis) {
+    long start = System.nanoTime();
+    int permits = license.permits(role, currEnabledUsersInRole, nowMillis);
+    PermitOutcome outcome = !license.isActive(nowMillis) ? PermitOutcome.INACTIVE
+        : permits > 0 ? PermitOutcome.AVAILABLE : PermitOutcome.EXHAUSTED;
+    metrics.latency(Operation.PERMITS, System.nanoTime() - start);
+    metrics.permitsChecked(license.getUniqueKey(), role, outcome);
+    return permits;
+  }
+
+  /**
+   * As {@link License#permits(String, int, long)}.
+   */
+  public int permits(License license, String roleName, int currEnabledUsersInRole,
+      long nowMillis) {
+    return permits(license, SeatRole.fromRoleName(roleName), currEnabledUsersInRole, nowMillis);
+  }
+
+  /**
+   * Validates the entity, reporting each violation by entity type and property path from the
+   * entity.
+   */
+  public <T> Set<ConstraintViolation<T>> validate(Validator validator, T entity) {
+    long start = System.nanoTime();
+    Set<ConstraintViolation<T>> violations = validator.validate(entity);
+    metrics.latency(Operation.VALIDATION, System.nanoTime() - start);
+    for (ConstraintViolation<T> violation : violations) {
+      metrics.validationFailed(entity.getClass(), violation.getPropertyPath().toString());
+    }
+    return violations;
+  }
+
+  /**
+   * Forgets the last seen activity of a license, e.g. when it is deleted.
+   */
+  public void forget(String licenseUniqueKey) {
+    lastActive.remove(licenseUniqueKey);
+  }
+
+}
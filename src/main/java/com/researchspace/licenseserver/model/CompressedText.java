@@ -0,0 +1,127 @@
+package com.researchspace.licenseserver.model;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Immutable, Deflate-compressed UTF-8 text, for large text values that are rarely read. The text
+ * can be streamed with {@link #openReader()} without ever holding it as a single String.
+ */
+public final class CompressedText {
+
+  private final byte[] deflated;
+
+  private CompressedText(byte[] deflated) {
+    this.deflated = deflated;
+  }
+
+  /**
+   * Compresses the text.
+   *
+   * @return the compressed text, or <code>null</code> if <code>text</code> is <code>null</code>
+   */
+  public static CompressedText of(String text) {
+    if (text == null) {
+      return null;
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, text.length() / 4));
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try (DeflaterOutputStream deflating = new DeflaterOutputStream(out, deflater)) {
+      deflating.write(text.getBytes(UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      deflater.end();
+    }
+    return new CompressedText(out.toByteArray());
+  }
+
+  /**
+   * Wraps already compressed bytes, as produced by {@link #toDeflated()}. The array is not
+   * copied and must not be modified afterwards.
+   *
+   * @return the compressed text, or <code>null</code> if <code>deflated</code> is
+   * <code>null</code>
+   */
+  public static CompressedText fromDeflated(byte[] deflated) {
+    return deflated == null ? null : new CompressedText(deflated);
+  }
+
+  /**
+   * The compressed bytes. The array is shared and must not be modified.
+   */
+  public byte[] toDeflated() {
+    return deflated;
+  }
+
+  /**
+   * The size of the compressed text in bytes.
+   */
+  public int compressedLength() {
+    return deflated.length;
+  }
+
+  /**
+   * Streams the UTF-8 bytes of the text, decompressing as it is read.
+   */
+  public InputStream openStream() {
+    return new InflaterInputStream(new ByteArrayInputStream(deflated));
+  }
+
+  /**
+   * Streams the text, decompressing as it is read.
+   */
+  public Reader openReader() {
+    return new InputStreamReader(openStream(), UTF_8);
+  }
+
+  /**
+   * Decompresses the whole text.
+   */
+  public String asString() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(deflated.length * 4);
+    try (InputStream in = openStream()) {
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new String(out.toByteArray(), UTF_8);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(deflated);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    return Arrays.equals(deflated, ((CompressedText) obj).deflated);
+  }
+
+  @Override
+  public String toString() {
+    return "CompressedText [compressedLength=" + deflated.length + "]";
+  }
+
+}
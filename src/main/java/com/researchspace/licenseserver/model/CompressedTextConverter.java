@@ -0,0 +1,22 @@
+package com.researchspace.licenseserver.model;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores {@link CompressedText} as its Deflate-compressed bytes.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<CompressedText, byte[]> {
+
+  @Override
+  public byte[] convertToDatabaseColumn(CompressedText attribute) {
+    return attribute == null ? null : attribute.toDeflated();
+  }
+
+  @Override
+  public CompressedText convertToEntityAttribute(byte[] dbData) {
+    return CompressedText.fromDeflated(dbData);
+  }
+
+}
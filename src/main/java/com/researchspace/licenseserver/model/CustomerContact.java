@@ -3,14 +3,19 @@ package com.researchspace.licenseserver.model;
 import static org.apache.commons.lang.StringUtils.strip;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.researchspace.licenseserver.model.validation.ContainsLetter;
+import com.researchspace.licenseserver.model.validation.TelephoneNumber;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
-import javax.validation.constraints.Pattern;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.validator.constraints.Email;
 import org.hibernate.validator.constraints.Length;
 import org.hibernate.validator.constraints.NotEmpty;
@@ -20,10 +25,17 @@ import org.hibernate.validator.constraints.NotEmpty;
  *
  */
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_contact_email", columnList = "email"),
+    @Index(name = "idx_contact_customerInfo", columnList = "customerInfo_id")})
+@JsonPropertyOrder({"firstName", "lastName", "email", "telephone", "id"})
 public class CustomerContact implements Comparable<CustomerContact> {
 
   public static final int MAX_NAME_LENGTH = 50;
 
+  /**
+   * The rule enforced by {@link ContainsLetter} on names and email, as a regex.
+   */
   public static final String AT_LEAST_ONE_CHAR = ".*(?=[A-Za-z]).+";
 
   public static final String LENGTH_ERROR_MSG = "Max length is " + MAX_NAME_LENGTH
@@ -123,7 +135,7 @@ public class CustomerContact implements Comparable<CustomerContact> {
   @NotEmpty(message = "first name cannot be empty")
   @Column(nullable = false, length = 50)
   @Length(max = MAX_NAME_LENGTH, message = "Max length is 50 characters")
-  @Pattern(regexp = AT_LEAST_ONE_CHAR, message = AT_LEAST_1_CHAR_IN_FIELD_MSG)
+  @ContainsLetter(message = AT_LEAST_1_CHAR_IN_FIELD_MSG)
   public String getFirstName() {
     return firstName;
   }
@@ -136,7 +148,7 @@ public class CustomerContact implements Comparable<CustomerContact> {
   @Length(max = MAX_NAME_LENGTH, message = LENGTH_ERROR_MSG)
   @Column(nullable = false, length = MAX_NAME_LENGTH)
   @NotEmpty(message = "Last name cannot be empty")
-  @Pattern(regexp = AT_LEAST_ONE_CHAR, message = AT_LEAST_1_CHAR_IN_FIELD_MSG)
+  @ContainsLetter(message = AT_LEAST_1_CHAR_IN_FIELD_MSG)
   public String getLastName() {
     return lastName;
   }
@@ -150,7 +162,7 @@ public class CustomerContact implements Comparable<CustomerContact> {
   @NotEmpty(message = "email cannot be empty")
   @Column(nullable = false)
   @Length(max = MAX_NAME_LENGTH, message = LENGTH_ERROR_MSG)
-  @Pattern(regexp = AT_LEAST_ONE_CHAR, message = AT_LEAST_1_CHAR_IN_FIELD_MSG)
+  @ContainsLetter(message = AT_LEAST_1_CHAR_IN_FIELD_MSG)
   public String getEmail() {
     return email;
   }
@@ -163,7 +175,7 @@ public class CustomerContact implements Comparable<CustomerContact> {
   @Column(nullable = false, length = 30)
   @NotEmpty(message = "Telephone cannot be empty")
   @Length(max = 30, message = "Max length is 30 characters")
-  @Pattern(regexp = "^[ext\\d\\-\\s+\\(\\)]+$", message = "Phone number must be numbers, dashes and spaces, 'ext', '+', '(' or ')' only.")
+  @TelephoneNumber
   public String getTelephone() {
     return telephone;
   }
@@ -177,7 +189,9 @@ public class CustomerContact implements Comparable<CustomerContact> {
   }
 
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(generator = "customerContact_seq")
+  @GenericGenerator(name = "customerContact_seq", strategy = PooledLoSequenceGenerator.STRATEGY,
+      parameters = @Parameter(name = PooledLoSequenceGenerator.SEQUENCE_PARAM, value = "customerContact_seq"))
   public Long getId() {
     return id;
   }
@@ -1,27 +1,66 @@
 package com.researchspace.licenseserver.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import java.util.Set;
 import java.util.TreeSet;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
+import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.validator.constraints.Length;
 import org.hibernate.validator.constraints.NotEmpty;
 
 /**
- * Entity for holding customer information.
- *
+ * Entity for holding customer information. Contacts are fetched lazily, or with the
+ * {@link #GRAPH_WITH_CONTACTS} entity graph. Second-level cacheable in region
+ * {@link #CACHE_REGION}.
+ * <p>
+ * Look customers up by name with the {@link #QUERY_BY_ORGANISATION_NAME} named query, and list
+ * their licenses with <code>License.QUERY_BY_CUSTOMER</code>.
  */
 @Entity
+@Table(indexes = @Index(name = "idx_customer_organisationName", columnList = "organisationName"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CustomerInfo.CACHE_REGION)
+@NamedEntityGraph(name = CustomerInfo.GRAPH_WITH_CONTACTS,
+    attributeNodes = @NamedAttributeNode("contacts"))
+@NamedQuery(name = CustomerInfo.QUERY_BY_ORGANISATION_NAME,
+    query = "select c from CustomerInfo c where c.organisationName = :organisationName"
+        + " order by c.id")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@JsonPropertyOrder({"id", "organisationName", "contacts"})
 public class CustomerInfo {
 
+  /**
+   * Entity graph loading the customer with its contacts
+   */
+  public static final String GRAPH_WITH_CONTACTS = "customer-with-contacts";
+
+  public static final String CACHE_REGION = "customerInfo";
+
+  /**
+   * Customers with organisation name {@link #PARAM_ORGANISATION_NAME}
+   */
+  public static final String QUERY_BY_ORGANISATION_NAME = "CustomerInfo.byOrganisationName";
+
+  public static final String PARAM_ORGANISATION_NAME = "organisationName";
+
   private Long id;
 
   private String organisationName;
@@ -83,7 +122,7 @@ public class CustomerInfo {
     this.organisationName = organisationName;
   }
 
-  @OneToMany(fetch = FetchType.EAGER, mappedBy = "customerInfo", cascade = CascadeType.ALL, orphanRemoval = true)
+  @OneToMany(fetch = FetchType.LAZY, mappedBy = "customerInfo", cascade = CascadeType.ALL, orphanRemoval = true)
   @JsonManagedReference
   public Set<CustomerContact> getContacts() {
     return contacts;
@@ -108,7 +147,9 @@ public class CustomerInfo {
   }
 
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(generator = "customerInfo_seq")
+  @GenericGenerator(name = "customerInfo_seq", strategy = PooledLoSequenceGenerator.STRATEGY,
+      parameters = @Parameter(name = PooledLoSequenceGenerator.SEQUENCE_PARAM, value = "customerInfo_seq"))
   public Long getId() {
     return id;
   }
@@ -0,0 +1,44 @@
+package com.researchspace.licenseserver.model;
+
+import javax.persistence.Persistence;
+import javax.persistence.PersistenceUtil;
+
+/**
+ * Checks on the lazy associations of the entities, for code that may be handed a license loaded
+ * without the associations it reads, e.g. with {@link License#GRAPH_CHECK} or by a plain
+ * <code>find</code>, and possibly detached.
+ * <p>
+ * An association is loaded if it is <code>null</code>, a plain object, or a proxy or collection
+ * that has been initialized. Reading an unloaded one initializes it while its entity manager is
+ * open, and throws <code>LazyInitializationException</code> once it is closed.
+ */
+public final class LazyAssociations {
+
+  private static final PersistenceUtil PERSISTENCE_UTIL = Persistence.getPersistenceUtil();
+
+  private LazyAssociations() {
+  }
+
+  /**
+   * Whether the association, as returned by its getter, can be read without loading it.
+   */
+  public static boolean isLoaded(Object association) {
+    return association == null || PERSISTENCE_UTIL.isLoaded(association);
+  }
+
+  /**
+   * Returns the association if it is loaded.
+   *
+   * @param name  the association, for the message
+   * @param graph an entity graph that loads it, for the message
+   * @throws IllegalArgumentException if it is not loaded
+   */
+  public static <T> T requireLoaded(T association, String name, String graph) {
+    if (!isLoaded(association)) {
+      throw new IllegalArgumentException(name + " is not loaded; load the license with the "
+          + graph + " entity graph");
+    }
+    return association;
+  }
+
+}
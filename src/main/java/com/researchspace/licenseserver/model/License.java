@@ -2,21 +2,41 @@ package com.researchspace.licenseserver.model;
 
 import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import java.text.SimpleDateFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.NamedSubgraph;
+import javax.persistence.Index;
 import javax.persistence.OneToOne;
+import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 import javax.persistence.Transient;
+import javax.persistence.Version;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.Parameter;
 
 /**
  * Core license class. Invariants are :
@@ -27,18 +47,151 @@ import javax.validation.constraints.NotNull;
  * <li> License key is not null.
  * </ul>
  *
+ * Associations are fetched lazily. Load them with one of the named entity graphs, e.g. by passing
+ * <code>"javax.persistence.fetchgraph" -> entityManager.getEntityGraph(GRAPH_ADMIN_VIEW)</code>
+ * as a hint to <code>find</code> or a query. Code that reads them once the entity manager is
+ * closed states the graph it needs, and {@link LazyAssociations} checks it; serialize detached
+ * licenses with {@link LicenseJsonModule}, which leaves out the associations not loaded.
+ * <p>
+ * Licenses are second-level cacheable in region {@link #CACHE_REGION}, and <code>uniqueKey</code>
+ * is a natural id, so lookups with <code>Session.bySimpleNaturalId(License.class)</code> can be
+ * resolved from the cache without SQL.
+ * <p>
+ * The common listings are available as named queries, e.g. {@link #QUERY_ACTIVE}, ordered by
+ * creation date and id. Page through them with {@link LicensePager} rather than by offset.
  */
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_license_expiryDate", columnList = "expiryDate"),
+    @Index(name = "idx_license_activationDate", columnList = "activationDate"),
+    @Index(name = "idx_license_revoked_expiryDate", columnList = "revoked, expiryDate"),
+    @Index(name = "idx_license_customerInfo", columnList = "customerInfo_id"),
+    @Index(name = "idx_license_creationDate_id", columnList = "creationDate, id")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = License.CACHE_REGION)
+@NaturalIdCache(region = License.NATURAL_ID_CACHE_REGION)
+@NamedEntityGraphs({
+    @NamedEntityGraph(name = License.GRAPH_CHECK),
+    @NamedEntityGraph(name = License.GRAPH_ADMIN_VIEW,
+        attributeNodes = {
+            @NamedAttributeNode(value = "customerInfo", subgraph = "customer"),
+            @NamedAttributeNode("serverInfo")},
+        subgraphs = @NamedSubgraph(name = "customer",
+            attributeNodes = @NamedAttributeNode("contacts"))),
+    @NamedEntityGraph(name = License.GRAPH_SUMMARY,
+        attributeNodes = {
+            @NamedAttributeNode("customerInfo"),
+            @NamedAttributeNode("serverInfo")})
+})
+@NamedQueries({
+    @NamedQuery(name = License.QUERY_ACTIVE,
+        query = License.LISTING + License.ACTIVE_CONDITION + License.LISTING_ORDER),
+    @NamedQuery(name = License.QUERY_EXPIRING,
+        query = License.LISTING + License.EXPIRING_CONDITION + License.LISTING_ORDER),
+    @NamedQuery(name = License.QUERY_REVOKED,
+        query = License.LISTING + License.REVOKED_CONDITION + License.LISTING_ORDER),
+    @NamedQuery(name = License.QUERY_BY_CUSTOMER,
+        query = License.LISTING + License.BY_CUSTOMER_CONDITION + License.LISTING_ORDER)
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@JsonPropertyOrder({"revoked", "expiryDateFormatted", "activationDateFormatted", "customerInfo",
+    "serverInfo", "creationDate", "activationDate", "expiryDate", "uniqueKey", "totalUserSeats",
+    "totalFreeSysadmin", "totalFreeRSpaceadmin", "id", "usedSeatCount", "version"})
 public class License {
 
   public static final String APIKEY_HEADER = "rs-apikey";
 
+  /**
+   * Entity graph loading only the license itself, all that check-ins need
+   */
+  public static final String GRAPH_CHECK = "license-check";
+
+  /**
+   * Entity graph loading the license with its customer, the customer's contacts and its server
+   */
+  public static final String GRAPH_ADMIN_VIEW = "license-admin-view";
+
+  /**
+   * Entity graph loading the license with its customer and server, but not the contacts, so that
+   * each license is one row of a query
+   */
+  public static final String GRAPH_SUMMARY = "license-summary";
+
+  /**
+   * Licenses active at parameter {@link #PARAM_NOW}, as {@link #isActive()} at that time
+   */
+  public static final String QUERY_ACTIVE = "License.active";
+
+  /**
+   * Unrevoked licenses expiring after parameter {@link #PARAM_NOW} and no later than
+   * {@link #PARAM_UNTIL}, e.g. now plus N days
+   */
+  public static final String QUERY_EXPIRING = "License.expiring";
+
+  /**
+   * Revoked licenses
+   */
+  public static final String QUERY_REVOKED = "License.revoked";
+
+  /**
+   * Licenses of the customer with id {@link #PARAM_CUSTOMER_ID}
+   */
+  public static final String QUERY_BY_CUSTOMER = "License.byCustomer";
+
+  public static final String PARAM_NOW = "now";
+
+  public static final String PARAM_UNTIL = "until";
+
+  public static final String PARAM_CUSTOMER_ID = "customerId";
+
+  /*
+   * The named listings, ordered by creation date and id so they can be paged by key, see
+   * LicensePager. Conditions use the alias l.
+   */
+  static final String LISTING = "select l from License l where ";
+
+  static final String ACTIVE_CONDITION =
+      "l.revoked = false and l.activationDate < :now and l.expiryDate > :now";
+
+  static final String EXPIRING_CONDITION =
+      "l.revoked = false and l.expiryDate > :now and l.expiryDate <= :until";
+
+  static final String REVOKED_CONDITION = "l.revoked = true";
+
+  static final String BY_CUSTOMER_CONDITION = "l.customerInfo.id = :customerId";
+
+  static final String LISTING_ORDER = " order by l.creationDate, l.id";
+
+  public static final String CACHE_REGION = "license";
+
+  public static final String NATURAL_ID_CACHE_REGION = "license.uniqueKey";
+
   private Date creationDate;
 
   private Date activationDate;
 
+  /*
+   * Millisecond mirrors of activationDate and expiryDate, kept in step by the setters so the
+   * activity check is plain arithmetic. A missing date yields a window that is never active.
+   */
+  private long activationMillis = Long.MAX_VALUE;
+
+  private long expiryMillis = Long.MIN_VALUE;
+
   public static final String DATE_FORMAT = "dd-MM-yyyy";
 
+  /*
+   * Immutable and thread-safe, unlike SimpleDateFormat, so it can be shared by all instances.
+   */
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DATE_FORMAT);
+
+  /*
+   * Memoized results of the formatted date getters, cleared when the underlying date is set.
+   */
+  private String cachedExpiryDateFormatted;
+
+  private String cachedActivationDateFormatted;
+
   private boolean isRevoked = false;
 
   public static final int ADMIN_PROPORTION = 20;
@@ -65,15 +218,27 @@ public class License {
   @Transient
   @JsonGetter
   public String getExpiryDateFormatted() {
-    SimpleDateFormat sdf = new SimpleDateFormat(DATE_FORMAT);
-    return sdf.format(expiryDate);
+    String formatted = cachedExpiryDateFormatted;
+    if (formatted == null && expiryDate != null) {
+      formatted = formatDate(expiryMillis);
+      cachedExpiryDateFormatted = formatted;
+    }
+    return formatted;
   }
 
   @Transient
   @JsonGetter
   public String getActivationDateFormatted() {
-    SimpleDateFormat sdf = new SimpleDateFormat(DATE_FORMAT);
-    return sdf.format(activationDate);
+    String formatted = cachedActivationDateFormatted;
+    if (formatted == null && activationDate != null) {
+      formatted = formatDate(activationMillis);
+      cachedActivationDateFormatted = formatted;
+    }
+    return formatted;
+  }
+
+  private static String formatDate(long millis) {
+    return DATE_FORMATTER.format(Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()));
   }
 
 
@@ -108,14 +273,14 @@ public class License {
 
   private String activationDateFormatted;
 
-  @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+  @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
   public CustomerInfo getCustomerInfo() {
     return customerInfo;
   }
 
   private ServerInfo serverInfo;
 
-  @OneToOne(cascade = CascadeType.ALL)
+  @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
   public ServerInfo getServerInfo() {
     return serverInfo;
   }
@@ -151,7 +316,9 @@ public class License {
       throw new IllegalArgumentException("expiry date can't be before activation date");
     }
     this.activationDate = new Date(activationDate.getTime());
+    this.activationMillis = activationDate.getTime();
     this.expiryDate = new Date(expiryDate.getTime());
+    this.expiryMillis = expiryDate.getTime();
     this.uniqueKey = uniqueKey;
     this.totalUserSeats = totalUserSeats;
   }
@@ -207,26 +374,32 @@ public class License {
   @Temporal(TemporalType.TIMESTAMP)
   @NotNull(message = " Activation date required")
   public Date getActivationDate() {
-    return activationDate;
+    return activationDate == null ? null : new Date(activationDate.getTime());
   }
 
   public void setActivationDate(Date activationDate) {
-    this.activationDate = activationDate;
+    // copied, so that activationMillis stays in step
+    this.activationDate = activationDate == null ? null : new Date(activationDate.getTime());
+    this.activationMillis = activationDate == null ? Long.MAX_VALUE : activationDate.getTime();
+    this.cachedActivationDateFormatted = null;
   }
 
   @Temporal(TemporalType.TIMESTAMP)
   @NotNull(message = "Expiry date required")
   public Date getExpiryDate() {
-    return expiryDate;
+    return expiryDate == null ? null : new Date(expiryDate.getTime());
   }
 
   public void setExpiryDate(Date expiryDate) {
-    if (activationDate != null && expiryDate.before(activationDate)) {
+    if (activationDate != null && expiryDate != null && expiryDate.before(activationDate)) {
       throw new IllegalArgumentException("Expiry can't be before activation date!");
     }
-    this.expiryDate = expiryDate;
+    this.expiryDate = expiryDate == null ? null : new Date(expiryDate.getTime());
+    this.expiryMillis = expiryDate == null ? Long.MIN_VALUE : expiryDate.getTime();
+    this.cachedExpiryDateFormatted = null;
   }
 
+  @NaturalId(mutable = true)
   @Column(nullable = false)
   public String getUniqueKey() {
     return uniqueKey;
@@ -267,7 +440,9 @@ public class License {
   }
 
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(generator = "license_seq")
+  @GenericGenerator(name = "license_seq", strategy = PooledLoSequenceGenerator.STRATEGY,
+      parameters = @Parameter(name = PooledLoSequenceGenerator.SEQUENCE_PARAM, value = "license_seq"))
   public Long getId() {
     return id;
   }
@@ -279,8 +454,37 @@ public class License {
   @Transient
   @JsonIgnore
   public boolean isActive() {
-    Date now = new Date();
-    return now.after(activationDate) && now.before(expiryDate) && !isRevoked;
+    return isActive(System.currentTimeMillis());
+  }
+
+  /**
+   * As {@link #isActive()}, evaluated at the current instant of the given clock.
+   */
+  public boolean isActive(Clock clock) {
+    return isActive(clock.millis());
+  }
+
+  /**
+   * As {@link #isActive()}, evaluated at the given time. Does not allocate.
+   *
+   * @param nowMillis milliseconds since the epoch
+   */
+  public boolean isActive(long nowMillis) {
+    return nowMillis > activationMillis && nowMillis < expiryMillis && !isRevoked;
+  }
+
+  /**
+   * Activation date as milliseconds since the epoch, or {@link Long#MAX_VALUE} if not set.
+   */
+  public long activationMillis() {
+    return activationMillis;
+  }
+
+  /**
+   * Expiry date as milliseconds since the epoch, or {@link Long#MIN_VALUE} if not set.
+   */
+  public long expiryMillis() {
+    return expiryMillis;
   }
 
   public void setId(Long id) {
@@ -306,6 +510,23 @@ public class License {
     this.usedSeatCount = usedSeatCount;
   }
 
+  private Long version = 0L;
+
+  /**
+   * Optimistic lock version, starting at 0 and incremented on each update. Concurrent updates of
+   * the same license fail with an <code>OptimisticLockException</code> instead of overwriting
+   * each other.
+   */
+  @Version
+  @Column(nullable = false)
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
 
   /**
    * Calculates the number of accounts who can be created.
@@ -318,17 +539,75 @@ public class License {
    * revoked.
    */
   public int permits(String roleName, int currEnabledUsersInRole) {
-    if (!isActive()) {
+    return permits(SeatRole.fromRoleName(roleName), currEnabledUsersInRole,
+        System.currentTimeMillis());
+  }
+
+  /**
+   * As {@link #permits(String, int)}, with license activity evaluated at the given time.
+   *
+   * @param nowMillis milliseconds since the epoch
+   */
+  public int permits(String roleName, int currEnabledUsersInRole, long nowMillis) {
+    return permits(SeatRole.fromRoleName(roleName), currEnabledUsersInRole, nowMillis);
+  }
+
+  /**
+   * As {@link #permits(String, int)}, for a seat role.
+   */
+  public int permits(SeatRole role, int currEnabledUsersInRole) {
+    return permits(role, currEnabledUsersInRole, System.currentTimeMillis());
+  }
+
+  /**
+   * As {@link #permits(String, int, long)}, for a seat role.
+   */
+  public int permits(SeatRole role, int currEnabledUsersInRole, long nowMillis) {
+    if (!isActive(nowMillis)) {
       return -1;
     }
-    switch (roleName) {
-      case "ROLE_ADMIN":
-        return totalFreeRSpaceadmin - currEnabledUsersInRole;
+    return seatLimit(role) - currEnabledUsersInRole;
+  }
+
+  /**
+   * Calculates the number of accounts who can be created in every role at once, checking license
+   * activity only once.
+   *
+   * @param currEnabledUsersByRole the current number of enabled users in each role, indexed by
+   *                               {@link SeatRole#ordinal()}
+   * @return the number of accounts that can be created in each role, indexed by
+   * {@link SeatRole#ordinal()}, with the same meaning as the return value of
+   * {@link #permits(String, int)}
+   */
+  public int[] permitsAll(int[] currEnabledUsersByRole) {
+    return permitsAll(currEnabledUsersByRole, System.currentTimeMillis());
+  }
+
+  /**
+   * As {@link #permitsAll(int[])}, with license activity evaluated at the given time.
+   */
+  public int[] permitsAll(int[] currEnabledUsersByRole, long nowMillis) {
+    if (currEnabledUsersByRole.length != SeatRole.COUNT) {
+      throw new IllegalArgumentException(
+          "Expected " + SeatRole.COUNT + " role counts but got " + currEnabledUsersByRole.length);
+    }
+    int[] permits = new int[SeatRole.COUNT];
+    boolean active = isActive(nowMillis);
+    for (SeatRole role : SeatRole.VALUES) {
+      int i = role.ordinal();
+      permits[i] = active ? seatLimit(role) - currEnabledUsersByRole[i] : -1;
+    }
+    return permits;
+  }
 
-      case "ROLE_SYSADMIN":
-        return totalFreeSysadmin - currEnabledUsersInRole;
+  private int seatLimit(SeatRole role) {
+    switch (role) {
+      case ADMIN:
+        return totalFreeRSpaceadmin;
+      case SYSADMIN:
+        return totalFreeSysadmin;
       default:
-        return totalUserSeats - currEnabledUsersInRole;
+        return totalUserSeats;
     }
   }
 
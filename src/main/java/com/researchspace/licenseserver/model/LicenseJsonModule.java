@@ -0,0 +1,451 @@
+package com.researchspace.licenseserver.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Set;
+
+/**
+ * Jackson module with streaming serializers and deserializers for {@link License},
+ * {@link CustomerInfo}, {@link CustomerContact} and {@link ServerInfo}, replacing
+ * reflection-based bean (de)serialization.
+ * <p>
+ * With a default-configured <code>ObjectMapper</code> the output is byte-identical to that of the
+ * bean serializers: the same properties in the <code>@JsonPropertyOrder</code> of each entity,
+ * nulls included, dates written with the mapper's date settings, and the back reference from a
+ * contact to its customer omitted. Mapper-wide property inclusion or naming settings are not
+ * applied. Unknown properties are handled according to the mapper's configuration.
+ * <p>
+ * Lazy associations that were not loaded, such as the customer and server of a license found
+ * without an entity graph, are left out rather than loaded, so detached entities serialize
+ * without a <code>LazyInitializationException</code> and an omitted customer is not mistaken
+ * for a license without one. The bean serializers need every association loaded.
+ * <p>
+ * Register with <code>objectMapper.registerModule(new LicenseJsonModule())</code>.
+ */
+public class LicenseJsonModule extends SimpleModule {
+
+  private static final long serialVersionUID = 1L;
+
+  public LicenseJsonModule() {
+    super("LicenseJsonModule", Version.unknownVersion());
+    addSerializer(License.class, new LicenseSerializer());
+    addSerializer(CustomerInfo.class, new CustomerInfoSerializer());
+    addSerializer(CustomerContact.class, new CustomerContactSerializer());
+    addSerializer(ServerInfo.class, new ServerInfoSerializer());
+    addDeserializer(License.class, new LicenseDeserializer());
+    addDeserializer(CustomerInfo.class, new CustomerInfoDeserializer());
+    addDeserializer(CustomerContact.class, new CustomerContactDeserializer());
+    addDeserializer(ServerInfo.class, new ServerInfoDeserializer());
+  }
+
+  static class LicenseSerializer extends StdSerializer<License> {
+
+    private static final long serialVersionUID = 1L;
+
+    LicenseSerializer() {
+      super(License.class);
+    }
+
+    @Override
+    public void serialize(License license, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+      gen.writeStartObject();
+      gen.writeBooleanField("revoked", license.isRevoked());
+      gen.writeStringField("expiryDateFormatted", license.getExpiryDateFormatted());
+      gen.writeStringField("activationDateFormatted", license.getActivationDateFormatted());
+      if (LazyAssociations.isLoaded(license.getCustomerInfo())) {
+        gen.writeFieldName("customerInfo");
+        CustomerInfoSerializer.write(license.getCustomerInfo(), gen);
+      }
+      if (LazyAssociations.isLoaded(license.getServerInfo())) {
+        gen.writeFieldName("serverInfo");
+        ServerInfoSerializer.write(license.getServerInfo(), gen);
+      }
+      writeDateField("creationDate", license.getCreationDate(), gen, provider);
+      writeDateField("activationDate", license.getActivationDate(), gen, provider);
+      writeDateField("expiryDate", license.getExpiryDate(), gen, provider);
+      gen.writeStringField("uniqueKey", license.getUniqueKey());
+      gen.writeNumberField("totalUserSeats", license.getTotalUserSeats());
+      gen.writeNumberField("totalFreeSysadmin", license.getTotalFreeSysadmin());
+      gen.writeNumberField("totalFreeRSpaceadmin", license.getTotalFreeRSpaceadmin());
+      writeIdField(license.getId(), gen);
+      gen.writeNumberField("usedSeatCount", license.getUsedSeatCount());
+      writeLongField("version", license.getVersion(), gen);
+      gen.writeEndObject();
+    }
+  }
+
+  static class CustomerInfoSerializer extends StdSerializer<CustomerInfo> {
+
+    private static final long serialVersionUID = 1L;
+
+    CustomerInfoSerializer() {
+      super(CustomerInfo.class);
+    }
+
+    @Override
+    public void serialize(CustomerInfo customer, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+      write(customer, gen);
+    }
+
+    static void write(CustomerInfo customer, JsonGenerator gen) throws IOException {
+      if (customer == null) {
+        gen.writeNull();
+        return;
+      }
+      gen.writeStartObject();
+      writeIdField(customer.getId(), gen);
+      gen.writeStringField("organisationName", customer.getOrganisationName());
+      Set<CustomerContact> contacts = customer.getContacts();
+      if (contacts == null) {
+        gen.writeNullField("contacts");
+      } else if (LazyAssociations.isLoaded(contacts)) {
+        gen.writeFieldName("contacts");
+        gen.writeStartArray();
+        for (CustomerContact contact : contacts) {
+          CustomerContactSerializer.write(contact, gen);
+        }
+        gen.writeEndArray();
+      }
+      gen.writeEndObject();
+    }
+  }
+
+  static class CustomerContactSerializer extends StdSerializer<CustomerContact> {
+
+    private static final long serialVersionUID = 1L;
+
+    CustomerContactSerializer() {
+      super(CustomerContact.class);
+    }
+
+    @Override
+    public void serialize(CustomerContact contact, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+      write(contact, gen);
+    }
+
+    static void write(CustomerContact contact, JsonGenerator gen) throws IOException {
+      if (contact == null) {
+        gen.writeNull();
+        return;
+      }
+      gen.writeStartObject();
+      gen.writeStringField("firstName", contact.getFirstName());
+      gen.writeStringField("lastName", contact.getLastName());
+      gen.writeStringField("email", contact.getEmail());
+      gen.writeStringField("telephone", contact.getTelephone());
+      writeIdField(contact.getId(), gen);
+      gen.writeEndObject();
+    }
+  }
+
+  static class ServerInfoSerializer extends StdSerializer<ServerInfo> {
+
+    private static final long serialVersionUID = 1L;
+
+    ServerInfoSerializer() {
+      super(ServerInfo.class);
+    }
+
+    @Override
+    public void serialize(ServerInfo server, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+      write(server, gen);
+    }
+
+    static void write(ServerInfo server, JsonGenerator gen) throws IOException {
+      if (server == null) {
+        gen.writeNull();
+        return;
+      }
+      gen.writeStartObject();
+      writeIdField(server.getId(), gen);
+      gen.writeStringField("uniqueId", server.getUniqueId());
+      gen.writeStringField("url", server.getUrl());
+      gen.writeStringField("macId", server.getMacId());
+      if (LazyAssociations.isLoaded(server.getServerInformationBlob())) {
+        gen.writeStringField("serverInformation", server.getServerInformation());
+      }
+      gen.writeEndObject();
+    }
+  }
+
+  static class LicenseDeserializer extends StdDeserializer<License> {
+
+    private static final long serialVersionUID = 1L;
+
+    LicenseDeserializer() {
+      super(License.class);
+    }
+
+    @Override
+    public License deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      License license = new License();
+      for (JsonToken t = startObject(p, ctxt, License.class); t == JsonToken.FIELD_NAME;
+          t = p.nextToken()) {
+        String name = p.getCurrentName();
+        p.nextToken();
+        try {
+          readField(license, name, p, ctxt);
+        } catch (IllegalArgumentException e) {
+          // setters enforce invariants; report like the bean deserializer does
+          throw JsonMappingException.from(p, e.getMessage(), e);
+        }
+      }
+      return license;
+    }
+
+    private void readField(License license, String name, JsonParser p,
+        DeserializationContext ctxt) throws IOException {
+      switch (name) {
+        case "revoked":
+          license.setRevoked(p.getValueAsBoolean());
+          break;
+        case "expiryDateFormatted":
+          license.setExpiryDateFormatted(p.getValueAsString());
+          break;
+        case "activationDateFormatted":
+          license.setActivationDateFormatted(p.getValueAsString());
+          break;
+        case "customerInfo":
+          license.setCustomerInfo(readNullable(p, ctxt, CustomerInfo.class));
+          break;
+        case "serverInfo":
+          license.setServerInfo(readNullable(p, ctxt, ServerInfo.class));
+          break;
+        case "creationDate":
+          license.setCreationDate(readNullable(p, ctxt, Date.class));
+          break;
+        case "activationDate":
+          license.setActivationDate(readNullable(p, ctxt, Date.class));
+          break;
+        case "expiryDate":
+          license.setExpiryDate(readNullable(p, ctxt, Date.class));
+          break;
+        case "uniqueKey":
+          license.setUniqueKey(p.getValueAsString());
+          break;
+        case "totalUserSeats":
+          license.setTotalUserSeats(p.getValueAsInt());
+          break;
+        case "totalFreeSysadmin":
+          license.setTotalFreeSysadmin(p.getValueAsInt());
+          break;
+        case "totalFreeRSpaceadmin":
+          license.setTotalFreeRSpaceadmin(p.getValueAsInt());
+          break;
+        case "id":
+          license.setId(readId(p));
+          break;
+        case "usedSeatCount":
+          license.setUsedSeatCount(p.getValueAsInt());
+          break;
+        case "version":
+          license.setVersion(readId(p));
+          break;
+        case "active":
+          // @JsonIgnore'd, so silently skipped as by the bean deserializer
+          p.skipChildren();
+          break;
+        default:
+          ctxt.handleUnknownProperty(p, this, License.class, name);
+      }
+    }
+  }
+
+  static class CustomerInfoDeserializer extends StdDeserializer<CustomerInfo> {
+
+    private static final long serialVersionUID = 1L;
+
+    CustomerInfoDeserializer() {
+      super(CustomerInfo.class);
+    }
+
+    @Override
+    public CustomerInfo deserialize(JsonParser p, DeserializationContext ctxt)
+        throws IOException {
+      CustomerInfo customer = new CustomerInfo();
+      for (JsonToken t = startObject(p, ctxt, CustomerInfo.class); t == JsonToken.FIELD_NAME;
+          t = p.nextToken()) {
+        String name = p.getCurrentName();
+        p.nextToken();
+        switch (name) {
+          case "id":
+            customer.setId(readId(p));
+            break;
+          case "organisationName":
+            customer.setOrganisationName(p.getValueAsString());
+            break;
+          case "contacts":
+            readContacts(customer, p, ctxt);
+            break;
+          default:
+            ctxt.handleUnknownProperty(p, this, CustomerInfo.class, name);
+        }
+      }
+      return customer;
+    }
+
+    private void readContacts(CustomerInfo customer, JsonParser p, DeserializationContext ctxt)
+        throws IOException {
+      if (p.currentToken() == JsonToken.VALUE_NULL) {
+        return;
+      }
+      if (p.currentToken() != JsonToken.START_ARRAY) {
+        ctxt.handleUnexpectedToken(CustomerContact.class, p);
+        return;
+      }
+      while (p.nextToken() != JsonToken.END_ARRAY) {
+        CustomerContact contact = readNullable(p, ctxt, CustomerContact.class);
+        if (contact != null) {
+          // sets the back reference, as @JsonManagedReference does
+          customer.addContact(contact);
+        }
+      }
+    }
+  }
+
+  static class CustomerContactDeserializer extends StdDeserializer<CustomerContact> {
+
+    private static final long serialVersionUID = 1L;
+
+    CustomerContactDeserializer() {
+      super(CustomerContact.class);
+    }
+
+    @Override
+    public CustomerContact deserialize(JsonParser p, DeserializationContext ctxt)
+        throws IOException {
+      CustomerContact contact = new CustomerContact();
+      for (JsonToken t = startObject(p, ctxt, CustomerContact.class); t == JsonToken.FIELD_NAME;
+          t = p.nextToken()) {
+        String name = p.getCurrentName();
+        p.nextToken();
+        switch (name) {
+          case "firstName":
+            contact.setFirstName(p.getValueAsString());
+            break;
+          case "lastName":
+            contact.setLastName(p.getValueAsString());
+            break;
+          case "email":
+            contact.setEmail(p.getValueAsString());
+            break;
+          case "telephone":
+            contact.setTelephone(p.getValueAsString());
+            break;
+          case "id":
+            contact.setId(readId(p));
+            break;
+          default:
+            ctxt.handleUnknownProperty(p, this, CustomerContact.class, name);
+        }
+      }
+      return contact;
+    }
+  }
+
+  static class ServerInfoDeserializer extends StdDeserializer<ServerInfo> {
+
+    private static final long serialVersionUID = 1L;
+
+    ServerInfoDeserializer() {
+      super(ServerInfo.class);
+    }
+
+    @Override
+    public ServerInfo deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      ServerInfo server = new ServerInfo();
+      for (JsonToken t = startObject(p, ctxt, ServerInfo.class); t == JsonToken.FIELD_NAME;
+          t = p.nextToken()) {
+        String name = p.getCurrentName();
+        p.nextToken();
+        switch (name) {
+          case "id":
+            server.setId(readId(p));
+            break;
+          case "uniqueId":
+            server.setUniqueId(p.getValueAsString());
+            break;
+          case "url":
+            server.setUrl(p.getValueAsString());
+            break;
+          case "macId":
+            server.setMacId(p.getValueAsString());
+            break;
+          case "serverInformation":
+            server.setServerInformation(p.getValueAsString());
+            break;
+          default:
+            ctxt.handleUnknownProperty(p, this, ServerInfo.class, name);
+        }
+      }
+      return server;
+    }
+  }
+
+  /*
+   * Positions the parser on the first field name of an object (or its end), whether called on
+   * START_OBJECT or, as for polymorphic handling, already on the first FIELD_NAME.
+   */
+  private static JsonToken startObject(JsonParser p, DeserializationContext ctxt, Class<?> type)
+      throws IOException {
+    JsonToken t = p.currentToken();
+    if (t == JsonToken.START_OBJECT) {
+      t = p.nextToken();
+    }
+    if (t != JsonToken.FIELD_NAME && t != JsonToken.END_OBJECT) {
+      ctxt.handleUnexpectedToken(type, p);
+    }
+    return t;
+  }
+
+  /*
+   * Reads a value, or null for a JSON null: DeserializationContext.readValue hands null tokens to
+   * the deserializer, and ours expect an object
+   */
+  private static <T> T readNullable(JsonParser p, DeserializationContext ctxt, Class<T> type)
+      throws IOException {
+    return p.currentToken() == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, type);
+  }
+
+  private static Long readId(JsonParser p) throws IOException {
+    return p.currentToken() == JsonToken.VALUE_NULL ? null : p.getValueAsLong();
+  }
+
+  private static void writeIdField(Long id, JsonGenerator gen) throws IOException {
+    writeLongField("id", id, gen);
+  }
+
+  private static void writeLongField(String name, Long value, JsonGenerator gen)
+      throws IOException {
+    if (value == null) {
+      gen.writeNullField(name);
+    } else {
+      gen.writeNumberField(name, value.longValue());
+    }
+  }
+
+  private static void writeDateField(String name, Date date, JsonGenerator gen,
+      SerializerProvider provider) throws IOException {
+    gen.writeFieldName(name);
+    if (date == null) {
+      gen.writeNull();
+    } else {
+      provider.defaultSerializeDateValue(date, gen);
+    }
+  }
+
+}
@@ -0,0 +1,66 @@
+package com.researchspace.licenseserver.model;
+
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * The position of a license in the listings' (creation date, id) order, after which
+ * {@link LicensePager} continues.
+ */
+public final class LicenseKeyset {
+
+  private final long creationMillis;
+
+  private final long id;
+
+  public LicenseKeyset(Date creationDate, long id) {
+    if (creationDate == null) {
+      throw new IllegalArgumentException("creationDate must not be null");
+    }
+    this.creationMillis = creationDate.getTime();
+    this.id = id;
+  }
+
+  /**
+   * The key of a persisted license.
+   *
+   * @throws IllegalArgumentException if the license has no id yet
+   */
+  public static LicenseKeyset of(License license) {
+    if (license.getId() == null) {
+      throw new IllegalArgumentException("License " + license.getUniqueKey() + " has no id");
+    }
+    return new LicenseKeyset(license.getCreationDate(), license.getId());
+  }
+
+  public Date getCreationDate() {
+    return new Date(creationMillis);
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    LicenseKeyset other = (LicenseKeyset) o;
+    return creationMillis == other.creationMillis && id == other.id;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(creationMillis, id);
+  }
+
+  @Override
+  public String toString() {
+    return "LicenseKeyset [creationDate=" + getCreationDate() + ", id=" + id + "]";
+  }
+
+}
@@ -0,0 +1,40 @@
+package com.researchspace.licenseserver.model;
+
+/**
+ * The license listings that {@link LicensePager} pages through, with the same conditions and
+ * parameters as the corresponding named queries on {@link License}.
+ */
+public enum LicenseListing {
+
+  /** All licenses */
+  ALL(null),
+
+  /** As {@link License#QUERY_ACTIVE}, with parameter {@link License#PARAM_NOW} */
+  ACTIVE(License.ACTIVE_CONDITION),
+
+  /**
+   * As {@link License#QUERY_EXPIRING}, with parameters {@link License#PARAM_NOW} and
+   * {@link License#PARAM_UNTIL}
+   */
+  EXPIRING(License.EXPIRING_CONDITION),
+
+  /** As {@link License#QUERY_REVOKED} */
+  REVOKED(License.REVOKED_CONDITION),
+
+  /** As {@link License#QUERY_BY_CUSTOMER}, with parameter {@link License#PARAM_CUSTOMER_ID} */
+  BY_CUSTOMER(License.BY_CUSTOMER_CONDITION);
+
+  private final String condition;
+
+  LicenseListing(String condition) {
+    this.condition = condition;
+  }
+
+  /*
+   * JPQL condition on alias l, or null for none
+   */
+  String getCondition() {
+    return condition;
+  }
+
+}
@@ -0,0 +1,36 @@
+package com.researchspace.licenseserver.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a license listing, see {@link LicensePager}.
+ */
+public final class LicensePage {
+
+  private final List<License> licenses;
+
+  private final LicenseKeyset next;
+
+  LicensePage(List<License> licenses, LicenseKeyset next) {
+    this.licenses = Collections.unmodifiableList(licenses);
+    this.next = next;
+  }
+
+  public List<License> getLicenses() {
+    return licenses;
+  }
+
+  /**
+   * The key to pass to {@link LicensePager#nextPage} for the following page, or
+   * <code>null</code> if this is the last page.
+   */
+  public LicenseKeyset getNext() {
+    return next;
+  }
+
+  public boolean hasNext() {
+    return next != null;
+  }
+
+}
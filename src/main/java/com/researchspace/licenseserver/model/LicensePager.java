@@ -0,0 +1,99 @@
+package com.researchspace.licenseserver.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.TemporalType;
+import javax.persistence.TypedQuery;
+
+/**
+ * Keyset ("seek") pagination of the license listings in (creation date, id) order.
+ * <p>
+ * Instead of skipping rows with an offset, which the database has to read and discard so deep
+ * pages get ever slower, each page continues after the key of the previous page's last license.
+ * With the <code>idx_license_creationDate_id</code> index, every page costs the same however far
+ * into the listing it is. Licenses inserted or removed between pages do not shift the following
+ * pages, so none are skipped or repeated.
+ */
+public class LicensePager {
+
+  private static final String AFTER_DATE = "afterDate";
+
+  private static final String AFTER_ID = "afterId";
+
+  /*
+   * Written with a plain lower bound on creationDate so the index range scan starts at the key
+   */
+  private static final String AFTER_KEY = "l.creationDate >= :" + AFTER_DATE
+      + " and (l.creationDate > :" + AFTER_DATE + " or l.id > :" + AFTER_ID + ")";
+
+  private final EntityManager entityManager;
+
+  private final int pageSize;
+
+  public LicensePager(EntityManager entityManager, int pageSize) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("pageSize must be positive but was " + pageSize);
+    }
+    this.entityManager = entityManager;
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * Convenience for listings without parameters.
+   */
+  public LicensePage firstPage(LicenseListing listing) {
+    return firstPage(listing, Collections.emptyMap());
+  }
+
+  /**
+   * @param parameters the listing's query parameters, see {@link LicenseListing}
+   */
+  public LicensePage firstPage(LicenseListing listing, Map<String, ?> parameters) {
+    return page(listing, parameters, null);
+  }
+
+  /**
+   * The page following the license with key <code>after</code>, usually
+   * {@link LicensePage#getNext()} of the previous page.
+   */
+  public LicensePage nextPage(LicenseListing listing, Map<String, ?> parameters,
+      LicenseKeyset after) {
+    if (after == null) {
+      throw new IllegalArgumentException("after must not be null");
+    }
+    return page(listing, parameters, after);
+  }
+
+  private LicensePage page(LicenseListing listing, Map<String, ?> parameters,
+      LicenseKeyset after) {
+    StringBuilder jpql = new StringBuilder("select l from License l");
+    String condition = listing.getCondition();
+    if (condition != null || after != null) {
+      jpql.append(" where ");
+    }
+    if (condition != null) {
+      jpql.append('(').append(condition).append(')');
+    }
+    if (after != null) {
+      jpql.append(condition != null ? " and " : "").append(AFTER_KEY);
+    }
+    jpql.append(License.LISTING_ORDER);
+
+    TypedQuery<License> query = entityManager.createQuery(jpql.toString(), License.class);
+    parameters.forEach(query::setParameter);
+    if (after != null) {
+      query.setParameter(AFTER_DATE, after.getCreationDate(), TemporalType.TIMESTAMP);
+      query.setParameter(AFTER_ID, after.getId());
+    }
+    // one extra row tells whether there is a next page
+    List<License> licenses = query.setMaxResults(pageSize + 1).getResultList();
+    if (licenses.size() <= pageSize) {
+      return new LicensePage(licenses, null);
+    }
+    List<License> page = licenses.subList(0, pageSize);
+    return new LicensePage(page, LicenseKeyset.of(page.get(pageSize - 1)));
+  }
+
+}
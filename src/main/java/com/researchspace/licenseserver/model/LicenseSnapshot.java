@@ -0,0 +1,166 @@
+package com.researchspace.licenseserver.model;
+
+/**
+ * Immutable, point-in-time copy of the state of a {@link License} needed to answer check-ins.
+ * <p>
+ * Unlike the entity, a snapshot can be shared between threads without locking: readers hold it
+ * through a <code>volatile</code> (or atomic) reference and admin updates publish a fresh
+ * snapshot with {@link #of(License)}, so a reader never sees a half-applied update.
+ */
+public final class LicenseSnapshot {
+
+  private final String uniqueKey;
+
+  private final long activationMillis;
+
+  private final long expiryMillis;
+
+  private final boolean revoked;
+
+  /*
+   * Seat limits, indexed by SeatRole ordinal
+   */
+  private final int[] seats = new int[SeatRole.COUNT];
+
+  private final int usedSeatCount;
+
+  private LicenseSnapshot(License license) {
+    this.uniqueKey = license.getUniqueKey();
+    this.activationMillis = license.activationMillis();
+    this.expiryMillis = license.expiryMillis();
+    this.revoked = license.isRevoked();
+    this.seats[SeatRole.USER.ordinal()] = license.getTotalUserSeats();
+    this.seats[SeatRole.ADMIN.ordinal()] = license.getTotalFreeRSpaceadmin();
+    this.seats[SeatRole.SYSADMIN.ordinal()] = license.getTotalFreeSysadmin();
+    this.usedSeatCount = license.getUsedSeatCount();
+  }
+
+  /**
+   * Takes a snapshot of the current state of the license. The license must not be modified
+   * concurrently while the snapshot is taken.
+   */
+  public static LicenseSnapshot of(License license) {
+    if (license == null) {
+      throw new IllegalArgumentException("License must not be null");
+    }
+    return new LicenseSnapshot(license);
+  }
+
+  public String getUniqueKey() {
+    return uniqueKey;
+  }
+
+  public long getActivationMillis() {
+    return activationMillis;
+  }
+
+  public long getExpiryMillis() {
+    return expiryMillis;
+  }
+
+  public boolean isRevoked() {
+    return revoked;
+  }
+
+  public int getTotalUserSeats() {
+    return seats[SeatRole.USER.ordinal()];
+  }
+
+  public int getTotalFreeRSpaceadmin() {
+    return seats[SeatRole.ADMIN.ordinal()];
+  }
+
+  public int getTotalFreeSysadmin() {
+    return seats[SeatRole.SYSADMIN.ordinal()];
+  }
+
+  /**
+   * The seat limit of the role.
+   */
+  public int getSeatLimit(SeatRole role) {
+    return seats[role.ordinal()];
+  }
+
+  public int getUsedSeatCount() {
+    return usedSeatCount;
+  }
+
+  /**
+   * As {@link License#isActive()}.
+   */
+  public boolean isActive() {
+    return isActive(System.currentTimeMillis());
+  }
+
+  /**
+   * As {@link License#isActive(long)}.
+   */
+  public boolean isActive(long nowMillis) {
+    return nowMillis > activationMillis && nowMillis < expiryMillis && !revoked;
+  }
+
+  /**
+   * As {@link License#permits(String, int)}.
+   */
+  public int permits(String roleName, int currEnabledUsersInRole) {
+    return permits(SeatRole.fromRoleName(roleName), currEnabledUsersInRole,
+        System.currentTimeMillis());
+  }
+
+  /**
+   * As {@link License#permits(String, int, long)}.
+   */
+  public int permits(String roleName, int currEnabledUsersInRole, long nowMillis) {
+    return permits(SeatRole.fromRoleName(roleName), currEnabledUsersInRole, nowMillis);
+  }
+
+  /**
+   * As {@link License#permits(SeatRole, int)}.
+   */
+  public int permits(SeatRole role, int currEnabledUsersInRole) {
+    return permits(role, currEnabledUsersInRole, System.currentTimeMillis());
+  }
+
+  /**
+   * As {@link License#permits(SeatRole, int, long)}.
+   */
+  public int permits(SeatRole role, int currEnabledUsersInRole, long nowMillis) {
+    if (!isActive(nowMillis)) {
+      return -1;
+    }
+    return seats[role.ordinal()] - currEnabledUsersInRole;
+  }
+
+  /**
+   * As {@link License#permitsAll(int[])}.
+   */
+  public int[] permitsAll(int[] currEnabledUsersByRole) {
+    return permitsAll(currEnabledUsersByRole, System.currentTimeMillis());
+  }
+
+  /**
+   * As {@link License#permitsAll(int[], long)}.
+   */
+  public int[] permitsAll(int[] currEnabledUsersByRole, long nowMillis) {
+    if (currEnabledUsersByRole.length != SeatRole.COUNT) {
+      throw new IllegalArgumentException(
+          "Expected " + SeatRole.COUNT + " role counts but got " + currEnabledUsersByRole.length);
+    }
+    int[] permits = new int[SeatRole.COUNT];
+    boolean active = isActive(nowMillis);
+    for (int i = 0; i < SeatRole.COUNT; i++) {
+      permits[i] = active ? seats[i] - currEnabledUsersByRole[i] : -1;
+    }
+    return permits;
+  }
+
+  @Override
+  public String toString() {
+    return "LicenseSnapshot [uniqueKey=" + uniqueKey + ", activationMillis=" + activationMillis
+        + ", expiryMillis=" + expiryMillis + ", revoked=" + revoked + ", totalUserSeats="
+        + getTotalUserSeats() + ", totalFreeRSpaceadmin=" + getTotalFreeRSpaceadmin()
+        + ", totalFreeSysadmin=" + getTotalFreeSysadmin() + ", usedSeatCount=" + usedSeatCount
+        + "]";
+  }
+
+}
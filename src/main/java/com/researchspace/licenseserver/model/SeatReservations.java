@@ -0,0 +1,164 @@
+package com.researchspace.licenseserver.model;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Lock-free seat accounting for a single license.
+ * <p>
+ * {@link License#permits(String, int)} only reports headroom, so two concurrent account
+ * creations can both see the last free seat and both take it. Here a seat is taken with
+ * {@link #tryReserve(String, int)}, which atomically checks the limit of the role and increments
+ * its counter, so the limits of the license hold under any contention.
+ * <p>
+ * There is one compare-and-set counter per {@link SeatRole}, each on its own cache line. The
+ * String methods map role names with {@link SeatRole#fromRoleName(String)}. Limits come from a
+ * {@link LicenseSnapshot} and can be replaced at any time with {@link #updateLimits}; reductions
+ * below the current reservations block further reservations but do not revoke existing ones.
+ */
+public class SeatReservations {
+
+  /*
+   * Slots between counters, so that each role's counter sits on its own 128-byte line
+   */
+  private static final int STRIDE = 32;
+
+  private final AtomicIntegerArray reserved =
+      new AtomicIntegerArray(SeatRole.COUNT * STRIDE);
+
+  private volatile LicenseSnapshot limits;
+
+  /**
+   * @param limits the license whose seat limits are enforced. All counters start at 0; seed them
+   *               from the enabled user counts with {@link #setReserved(SeatRole, int)}.
+   */
+  public SeatReservations(LicenseSnapshot limits) {
+    updateLimits(limits);
+  }
+
+  /**
+   * Publishes new limits, e.g. after an admin changed the license.
+   */
+  public void updateLimits(LicenseSnapshot limits) {
+    if (limits == null) {
+      throw new IllegalArgumentException("Limits must not be null");
+    }
+    this.limits = limits;
+  }
+
+  public LicenseSnapshot getLimits() {
+    return limits;
+  }
+
+  /**
+   * Reserves <code>n</code> seats in the role if the license is active and that many seats are
+   * free.
+   *
+   * @return <code>true</code> if the seats were reserved, <code>false</code> if the license is
+   * inactive or there are not enough free seats, in which case nothing is reserved.
+   */
+  public boolean tryReserve(String roleName, int n) {
+    return tryReserve(roleName, n, System.currentTimeMillis());
+  }
+
+  /**
+   * As {@link #tryReserve(String, int)}, with license activity evaluated at the given time.
+   */
+  public boolean tryReserve(String roleName, int n, long nowMillis) {
+    return tryReserve(SeatRole.fromRoleName(roleName), n, nowMillis);
+  }
+
+  /**
+   * As {@link #tryReserve(String, int)}, for a seat role.
+   */
+  public boolean tryReserve(SeatRole role, int n) {
+    return tryReserve(role, n, System.currentTimeMillis());
+  }
+
+  /**
+   * As {@link #tryReserve(String, int, long)}, for a seat role.
+   */
+  public boolean tryReserve(SeatRole role, int n, long nowMillis) {
+    assertPositive(n);
+    LicenseSnapshot current = limits;
+    if (!current.isActive(nowMillis)) {
+      return false;
+    }
+    int limit = current.getSeatLimit(role);
+    int slot = role.ordinal() * STRIDE;
+    while (true) {
+      int inUse = reserved.get(slot);
+      if (inUse > limit - n) {
+        return false;
+      }
+      if (reserved.compareAndSet(slot, inUse, inUse + n)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Returns <code>n</code> previously reserved seats in the role.
+   *
+   * @throws IllegalStateException if fewer than <code>n</code> seats are reserved in the role
+   */
+  public void release(String roleName, int n) {
+    release(SeatRole.fromRoleName(roleName), n);
+  }
+
+  /**
+   * As {@link #release(String, int)}, for a seat role.
+   */
+  public void release(SeatRole role, int n) {
+    assertPositive(n);
+    int slot = role.ordinal() * STRIDE;
+    while (true) {
+      int inUse = reserved.get(slot);
+      if (inUse < n) {
+        throw new IllegalStateException(
+            "Cannot release " + n + " seats for " + role + ", only " + inUse + " reserved");
+      }
+      if (reserved.compareAndSet(slot, inUse, inUse - n)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * The number of seats currently reserved in the role.
+   */
+  public int reserved(String roleName) {
+    return reserved(SeatRole.fromRoleName(roleName));
+  }
+
+  /**
+   * As {@link #reserved(String)}, for a seat role.
+   */
+  public int reserved(SeatRole role) {
+    return reserved.get(role.ordinal() * STRIDE);
+  }
+
+  /**
+   * Overwrites the reservation count of the role, e.g. with the enabled user count reported by
+   * an RSpace instance. Not limit-checked.
+   */
+  public void setReserved(String roleName, int count) {
+    setReserved(SeatRole.fromRoleName(roleName), count);
+  }
+
+  /**
+   * As {@link #setReserved(String, int)}, for a seat role.
+   */
+  public void setReserved(SeatRole role, int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Seat count cannot be negative");
+    }
+    reserved.set(role.ordinal() * STRIDE, count);
+  }
+
+  private void assertPositive(int n) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("Seat count must be positive but was " + n);
+    }
+  }
+
+}
@@ -0,0 +1,60 @@
+package com.researchspace.licenseserver.model;
+
+/**
+ * The roles that a license limits seats for. Role names agree with those defined in RSpace.
+ */
+public enum SeatRole {
+
+  /**
+   * Regular users, limited by {@link License#getTotalUserSeats()}
+   */
+  USER("ROLE_USER"),
+
+  /**
+   * RSpace admins, limited by {@link License#getTotalFreeRSpaceadmin()}
+   */
+  ADMIN("ROLE_ADMIN"),
+
+  /**
+   * System admins, limited by {@link License#getTotalFreeSysadmin()}
+   */
+  SYSADMIN("ROLE_SYSADMIN");
+
+  /*
+   * Shared copy of values(), which clones on every call
+   */
+  static final SeatRole[] VALUES = values();
+
+  /**
+   * The number of roles, i.e. the length of arrays indexed by {@link #ordinal()}.
+   */
+  public static final int COUNT = VALUES.length;
+
+  private final String roleName;
+
+  SeatRole(String roleName) {
+    this.roleName = roleName;
+  }
+
+  /**
+   * The RSpace role name, e.g. <code>ROLE_USER</code>.
+   */
+  public String getRoleName() {
+    return roleName;
+  }
+
+  /**
+   * Maps an RSpace role name to its seat role. Unknown role names count as {@link #USER}.
+   */
+  public static SeatRole fromRoleName(String roleName) {
+    switch (roleName) {
+      case "ROLE_ADMIN":
+        return ADMIN;
+      case "ROLE_SYSADMIN":
+        return SYSADMIN;
+      default:
+        return USER;
+    }
+  }
+
+}
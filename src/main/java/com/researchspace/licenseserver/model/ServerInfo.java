@@ -1,19 +1,46 @@
 package com.researchspace.licenseserver.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Objects;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.Lob;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Transient;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.Parameter;
 
 /**
- * Basic info about the customer's server
+ * Basic info about the customer's server. Second-level cacheable, with <code>uniqueId</code> as a
+ * cached natural id.
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ServerInfo.CACHE_REGION)
+@NaturalIdCache(region = ServerInfo.NATURAL_ID_CACHE_REGION)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@JsonPropertyOrder({"id", "uniqueId", "url", "macId", "serverInformation"})
 public class ServerInfo {
 
+  public static final String CACHE_REGION = "serverInfo";
+
+  public static final String NATURAL_ID_CACHE_REGION = "serverInfo.uniqueId";
+
   private Long id;
 
   public void setId(Long id) {
@@ -21,7 +48,9 @@ public class ServerInfo {
   }
 
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(generator = "serverInfo_seq")
+  @GenericGenerator(name = "serverInfo_seq", strategy = PooledLoSequenceGenerator.STRATEGY,
+      parameters = @Parameter(name = PooledLoSequenceGenerator.SEQUENCE_PARAM, value = "serverInfo_seq"))
   public Long getId() {
     return id;
   }
@@ -44,6 +73,7 @@ public class ServerInfo {
   /**
    * A unique id for the server. This can be set by the RSpace instance on setup.
    */
+  @NaturalId(mutable = true)
   @Column(nullable = false, unique = true)
   public String getUniqueId() {
     return uniqueId;
@@ -121,16 +151,98 @@ public class ServerInfo {
     this.url = url;
   }
 
-  @Lob()
+  /**
+   * Free-text information about the server, e.g. an environment dump. Decompresses the stored
+   * text; prefer {@link #openServerInformationReader()} for large values.
+   */
+  @Transient
   public String getServerInformation() {
-    return serverInformation;
+    return serverInformation == null ? null : serverInformation.getContent().asString();
   }
 
+  /**
+   * Sets the server information, as {@link #updateServerInformation(String)}.
+   * <p>
+   * <b>Before persisting, merging or flushing this server, or a license referencing it, call
+   * {@link ServerInformationBlobs#attach(javax.persistence.EntityManager, ServerInfo)}.</b> The
+   * information is stored in a new, transient {@link ServerInformationBlob} that is not cascaded,
+   * so without <code>attach</code> the flush fails with a
+   * <code>TransientPropertyValueException</code>. Up to 0.8.2 the information was a column of
+   * the server and needed no extra step.
+   */
   public void setServerInformation(String serverInformation) {
+    updateServerInformation(serverInformation);
+  }
+
+  /**
+   * Sets the server information unless it is unchanged, as determined by its content hash. A
+   * heartbeat reporting the same information as before can skip writing altogether. If it
+   * changed, call {@link ServerInformationBlobs#attach(javax.persistence.EntityManager,
+   * ServerInfo)} before the server is next persisted, merged or flushed, as for
+   * {@link #setServerInformation(String)}.
+   *
+   * @return <code>true</code> if the server information changed
+   */
+  public boolean updateServerInformation(String serverInformation) {
+    String hash = serverInformation == null ? null : ServerInformationBlob.hash(serverInformation);
+    if (Objects.equals(hash, getServerInformationHash())) {
+      return false;
+    }
+    this.serverInformation = serverInformation == null ? null
+        : new ServerInformationBlob(hash, CompressedText.of(serverInformation));
+    return true;
+  }
+
+  /**
+   * The SHA-256 hash of the server information, or <code>null</code> if there is none. Does not
+   * load the information itself.
+   */
+  @Transient
+  @JsonIgnore
+  public String getServerInformationHash() {
+    return serverInformation == null ? null : serverInformation.getHash();
+  }
+
+  /**
+   * Streams the server information without holding it as one String.
+   *
+   * @return a reader, empty if there is no server information
+   */
+  public Reader openServerInformationReader() {
+    return serverInformation == null ? new StringReader("")
+        : serverInformation.getContent().openReader();
+  }
+
+  /**
+   * Streams the UTF-8 bytes of the server information.
+   *
+   * @return a stream, empty if there is no server information
+   */
+  public InputStream openServerInformationStream() {
+    return serverInformation == null ? new ByteArrayInputStream(new byte[0])
+        : serverInformation.getContent().openStream();
+  }
+
+  /**
+   * The stored server information, shared with all servers reporting identical information and
+   * referenced by its hash in the <code>serverInformationHash</code> column.
+   * <p>
+   * Not cascaded: setting the information creates a new blob, so call
+   * {@link ServerInformationBlobs#attach(javax.persistence.EntityManager, ServerInfo)} before
+   * persisting or merging this server, to reuse or insert the blob row.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "serverInformationHash")
+  @JsonIgnore
+  public ServerInformationBlob getServerInformationBlob() {
+    return serverInformation;
+  }
+
+  public void setServerInformationBlob(ServerInformationBlob serverInformation) {
     this.serverInformation = serverInformation;
   }
 
-  private String serverInformation;
+  private ServerInformationBlob serverInformation;
 
 
 }
@@ -0,0 +1,135 @@
+package com.researchspace.licenseserver.model;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+
+/**
+ * Content-addressed server information text, keyed by the SHA-256 hash of its UTF-8 bytes, so
+ * that identical reports from any number of servers are stored once. Instances are immutable:
+ * different text is a different blob.
+ */
+@Entity
+public class ServerInformationBlob {
+
+  /**
+   * Length of a hex-encoded SHA-256 hash
+   */
+  public static final int HASH_LENGTH = 64;
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private String hash;
+
+  private CompressedText content;
+
+  /*
+   * For hibernate
+   */
+  public ServerInformationBlob() {
+
+  }
+
+  ServerInformationBlob(String hash, CompressedText content) {
+    this.hash = hash;
+    this.content = content;
+  }
+
+  /**
+   * Creates the blob holding the text.
+   */
+  public static ServerInformationBlob of(String text) {
+    if (text == null) {
+      throw new IllegalArgumentException("Text must not be null");
+    }
+    return new ServerInformationBlob(hash(text), CompressedText.of(text));
+  }
+
+  /**
+   * The hex-encoded SHA-256 hash of the UTF-8 bytes of the text.
+   */
+  public static String hash(String text) {
+    byte[] digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      // every JRE is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+    char[] hex = new char[digest.length * 2];
+    for (int i = 0; i < digest.length; i++) {
+      hex[2 * i] = HEX[(digest[i] >> 4) & 0xF];
+      hex[2 * i + 1] = HEX[digest[i] & 0xF];
+    }
+    return new String(hex);
+  }
+
+  /**
+   * The hex-encoded SHA-256 hash of the text, which identifies the blob.
+   */
+  @Id
+  @Column(length = HASH_LENGTH)
+  public String getHash() {
+    return hash;
+  }
+
+  /*
+   * For hibernate
+   */
+  void setHash(String hash) {
+    this.hash = hash;
+  }
+
+  /**
+   * The Deflate-compressed text, fetched lazily where the persistence provider supports it.
+   */
+  @Lob
+  @Basic(fetch = FetchType.LAZY)
+  @Convert(converter = CompressedTextConverter.class)
+  @Column(nullable = false)
+  public CompressedText getContent() {
+    return content;
+  }
+
+  /*
+   * For hibernate
+   */
+  void setContent(CompressedText content) {
+    this.content = content;
+  }
+
+  @Override
+  public int hashCode() {
+    String h = getHash();
+    return h == null ? 0 : h.hashCode();
+  }
+
+  /*
+   * Compares through getters and instanceof, as either side may be a lazy-loading proxy
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ServerInformationBlob)) {
+      return false;
+    }
+    String h = getHash();
+    return h != null && h.equals(((ServerInformationBlob) obj).getHash());
+  }
+
+  @Override
+  public String toString() {
+    return "ServerInformationBlob [hash=" + hash + "]";
+  }
+
+}
@@ -0,0 +1,62 @@
+package com.researchspace.licenseserver.model;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Find-or-insert and cleanup of the shared {@link ServerInformationBlob} rows.
+ * <p>
+ * {@link ServerInfo#setServerInformation(String)} always creates a new, transient blob, and the
+ * association does not cascade, because several servers may report the same text and a cascaded
+ * persist would insert its hash twice. Call {@link #attach(EntityManager, ServerInfo)} before
+ * persisting or merging a server whose information was set, so that it references the existing
+ * row where there is one.
+ * <p>
+ * Two transactions attaching the same new text at once can both insert it, and one then fails
+ * with a constraint violation on the primary key; retrying it attaches the committed row.
+ */
+public final class ServerInformationBlobs {
+
+  private ServerInformationBlobs() {
+  }
+
+  /**
+   * Points the server at the persistent blob with the same hash as its own, inserting the blob
+   * if there is none yet. Does nothing if the server has no information or its blob is already
+   * managed by the entity manager.
+   */
+  public static void attach(EntityManager entityManager, ServerInfo server) {
+    ServerInformationBlob blob = server.getServerInformationBlob();
+    if (blob == null || entityManager.contains(blob)) {
+      return;
+    }
+    ServerInformationBlob existing = entityManager.find(ServerInformationBlob.class,
+        blob.getHash());
+    if (existing == null) {
+      entityManager.persist(blob);
+    } else {
+      server.setServerInformationBlob(existing);
+    }
+  }
+
+  /**
+   * As {@link #attach(EntityManager, ServerInfo)} for the license's server, if it has one.
+   */
+  public static void attach(EntityManager entityManager, License license) {
+    if (license.getServerInfo() != null) {
+      attach(entityManager, license.getServerInfo());
+    }
+  }
+
+  /**
+   * Deletes the blobs no server references any more, e.g. after servers reported new
+   * information or were deleted. Run it periodically, in its own transaction.
+   *
+   * @return the number of blobs deleted
+   */
+  public static int deleteOrphans(EntityManager entityManager) {
+    return entityManager.createQuery("delete from ServerInformationBlob b where not exists"
+        + " (select s.id from ServerInfo s where s.serverInformationBlob = b)")
+        .executeUpdate();
+  }
+
+}
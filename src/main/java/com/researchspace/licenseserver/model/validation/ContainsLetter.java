@@ -0,0 +1,34 @@
+package com.researchspace.licenseserver.model.validation;
+
+import static java.lang.annotation.ElementType.ANNOTATION_TYPE;
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import javax.validation.Constraint;
+import javax.validation.Payload;
+
+/**
+ * The annotated string must be a single line containing at least one ASCII letter.
+ * <code>null</code> is valid.
+ * <p>
+ * Equivalent to <code>@Pattern(regexp = ".*(?=[A-Za-z]).+")</code>, i.e.
+ * <code>CustomerContact.AT_LEAST_ONE_CHAR</code>, checked in one pass without a regex.
+ */
+@Documented
+@Constraint(validatedBy = ContainsLetterValidator.class)
+@Target({METHOD, FIELD, ANNOTATION_TYPE, PARAMETER})
+@Retention(RUNTIME)
+public @interface ContainsLetter {
+
+  String message() default "There must be at least one letter character.";
+
+  Class<?>[] groups() default {};
+
+  Class<? extends Payload>[] payload() default {};
+
+}
@@ -0,0 +1,32 @@
+package com.researchspace.licenseserver.model.validation;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * Validates {@link ContainsLetter}.
+ */
+public class ContainsLetterValidator implements ConstraintValidator<ContainsLetter, CharSequence> {
+
+  @Override
+  public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+    return value == null || isValid(value);
+  }
+
+  /**
+   * As matching <code>.*(?=[A-Za-z]).+</code>: no line terminator, as <code>.</code> does not
+   * match one, and at least one ASCII letter.
+   */
+  static boolean isValid(CharSequence value) {
+    boolean letter = false;
+    for (int i = 0, length = value.length(); i < length; i++) {
+      char c = value.charAt(i);
+      if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+        return false;
+      }
+      letter |= (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+    return letter;
+  }
+
+}
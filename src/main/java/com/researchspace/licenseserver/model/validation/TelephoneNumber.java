@@ -0,0 +1,35 @@
+package com.researchspace.licenseserver.model.validation;
+
+import static java.lang.annotation.ElementType.ANNOTATION_TYPE;
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import javax.validation.Constraint;
+import javax.validation.Payload;
+
+/**
+ * The annotated string must be non-empty and consist only of ASCII digits, whitespace, dashes,
+ * '+', '(', ')' and the letters of 'ext'. <code>null</code> is valid.
+ * <p>
+ * Equivalent to <code>@Pattern(regexp = "^[ext\\d\\-\\s+\\(\\)]+$")</code>, checked in one pass
+ * without a regex.
+ */
+@Documented
+@Constraint(validatedBy = TelephoneNumberValidator.class)
+@Target({METHOD, FIELD, ANNOTATION_TYPE, PARAMETER})
+@Retention(RUNTIME)
+public @interface TelephoneNumber {
+
+  String message() default
+      "Phone number must be numbers, dashes and spaces, 'ext', '+', '(' or ')' only.";
+
+  Class<?>[] groups() default {};
+
+  Class<? extends Payload>[] payload() default {};
+
+}
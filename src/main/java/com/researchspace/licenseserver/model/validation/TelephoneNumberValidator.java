@@ -0,0 +1,35 @@
+package com.researchspace.licenseserver.model.validation;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * Validates {@link TelephoneNumber}.
+ */
+public class TelephoneNumberValidator implements
+    ConstraintValidator<TelephoneNumber, CharSequence> {
+
+  @Override
+  public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+    return value == null || isValid(value);
+  }
+
+  /**
+   * As matching <code>^[ext\d\-\s+\(\)]+$</code>, where <code>\d</code> is [0-9] and
+   * <code>\s</code> is [ \t\n\x0B\f\r].
+   */
+  static boolean isValid(CharSequence value) {
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      boolean allowed = (c >= '0' && c <= '9') || c == 'e' || c == 'x' || c == 't'
+          || c == '-' || c == '+' || c == '(' || c == ')'
+          || c == ' ' || (c >= '\t' && c <= '\r');
+      if (!allowed) {
+        return false;
+      }
+    }
+    return length > 0;
+  }
+
+}
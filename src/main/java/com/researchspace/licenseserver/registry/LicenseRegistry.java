@@ -0,0 +1,219 @@
+package com.researchspace.licenseserver.registry;
+
+import com.researchspace.licenseserver.model.LazyAssociations;
+import com.researchspace.licenseserver.model.License;
+import com.researchspace.licenseserver.model.ServerInfo;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Concurrent in-memory index of licenses, so that check-ins can be answered without a database
+ * query. Licenses are looked up in constant time by {@link License#getUniqueKey()} or by the
+ * {@link ServerInfo#getUniqueId()} of their server.
+ * <p>
+ * The registry does not depend on any persistence API: fill it from whatever loads the entities,
+ * e.g. <code>LicenseRegistry.of(entityManager.createQuery(..).getResultStream(), max)</code>.
+ * Licenses are indexed by their server and outlive the entity manager, so load them with their
+ * server, e.g. with the {@link License#GRAPH_SUMMARY} entity graph.
+ * Registered licenses should be treated as read-only; to change one, {@link #put(License)} an
+ * updated copy, which atomically replaces the previous entry.
+ * <p>
+ * When the registry grows beyond its maximum size, inactive and revoked licenses are evicted.
+ * Active licenses are never evicted, so a registry holding only active licenses can exceed its
+ * maximum size. Eviction scans every license, so after each scan the next one waits until the
+ * registry has grown by an eighth of the licenses left; the scans thus cost a constant amortized
+ * time per put, and the registry can exceed its maximum size by up to an eighth.
+ */
+public class LicenseRegistry {
+
+  private final int maxSize;
+
+  private final Clock clock;
+
+  private final Map<String, License> byUniqueKey = new ConcurrentHashMap<>();
+
+  /*
+   * Server unique id to license unique key
+   */
+  private final Map<String, String> uniqueKeyByServerId = new ConcurrentHashMap<>();
+
+  /*
+   * The size above which put scans for licenses to evict
+   */
+  private volatile int evictionThreshold;
+
+  /**
+   * @param maxSize the number of licenses above which inactive and revoked ones are evicted
+   */
+  public LicenseRegistry(int maxSize) {
+    this(maxSize, Clock.systemUTC());
+  }
+
+  /**
+   * @param maxSize the number of licenses above which inactive and revoked ones are evicted
+   * @param clock   the clock that license activity is evaluated against
+   */
+  public LicenseRegistry(int maxSize, Clock clock) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Max size must be positive");
+    }
+    this.maxSize = maxSize;
+    this.clock = clock;
+    this.evictionThreshold = maxSize;
+  }
+
+  /**
+   * Creates a registry filled from a stream of licenses, e.g. a JPA result stream.
+   */
+  public static LicenseRegistry of(Stream<License> licenses, int maxSize) {
+    LicenseRegistry registry = new LicenseRegistry(maxSize);
+    registry.putAll(licenses);
+    return registry;
+  }
+
+  /**
+   * Registers all licenses in the stream, replacing any with the same unique keys.
+   */
+  public void putAll(Stream<License> licenses) {
+    licenses.forEach(this::put);
+  }
+
+  /**
+   * Registers a license, atomically replacing any license with the same unique key.
+   *
+   * @return the replaced license, or <code>null</code> if there was none
+   * @throws IllegalArgumentException if the license has no unique key, or was loaded without
+   *                                  its server
+   */
+  public License put(License license) {
+    String uniqueKey = license.getUniqueKey();
+    if (uniqueKey == null) {
+      throw new IllegalArgumentException("License must have a unique key");
+    }
+    String serverId = serverId(license);
+    License[] replaced = new License[1];
+    byUniqueKey.compute(uniqueKey, (key, previous) -> {
+      replaced[0] = previous;
+      String previousServerId = serverId(previous);
+      if (previousServerId != null && !previousServerId.equals(serverId)) {
+        uniqueKeyByServerId.remove(previousServerId, key);
+      }
+      if (serverId != null) {
+        uniqueKeyByServerId.put(serverId, key);
+      }
+      return license;
+    });
+    if (byUniqueKey.size() > evictionThreshold) {
+      evictIfOverThreshold();
+    }
+    return replaced[0];
+  }
+
+  /**
+   * @return the license with the unique key, or <code>null</code> if it is not registered
+   */
+  public License findByUniqueKey(String uniqueKey) {
+    return byUniqueKey.get(uniqueKey);
+  }
+
+  /**
+   * @return the license of the server with the unique id, or <code>null</code> if it is not
+   * registered
+   */
+  public License findByServerUniqueId(String serverUniqueId) {
+    String uniqueKey = uniqueKeyByServerId.get(serverUniqueId);
+    if (uniqueKey == null) {
+      return null;
+    }
+    License license = byUniqueKey.get(uniqueKey);
+    // the server may have moved to another license since the key was read
+    if (license == null || !serverUniqueId.equals(serverId(license))) {
+      return null;
+    }
+    return license;
+  }
+
+  /**
+   * Removes the license with the unique key.
+   *
+   * @return the removed license, or <code>null</code> if it was not registered
+   */
+  public License remove(String uniqueKey) {
+    License[] removed = new License[1];
+    byUniqueKey.computeIfPresent(uniqueKey, (key, previous) -> {
+      removed[0] = previous;
+      String serverId = serverId(previous);
+      if (serverId != null) {
+        uniqueKeyByServerId.remove(serverId, key);
+      }
+      return null;
+    });
+    return removed[0];
+  }
+
+  /**
+   * Removes all licenses that are revoked or not active now, regardless of size.
+   *
+   * @return the number of licenses removed
+   */
+  public int evictInactive() {
+    long now = clock.millis();
+    int evicted = 0;
+    for (License license : byUniqueKey.values()) {
+      if (!license.isActive(now) && evict(license)) {
+        evicted++;
+      }
+    }
+    int remaining = byUniqueKey.size();
+    evictionThreshold = Math.max(maxSize, remaining + remaining / 8 + 1);
+    return evicted;
+  }
+
+  /*
+   * Scans once for concurrent puts that all crossed the threshold
+   */
+  private synchronized void evictIfOverThreshold() {
+    if (byUniqueKey.size() > evictionThreshold) {
+      evictInactive();
+    }
+  }
+
+  /*
+   * Removes the license only if it is still the registered one
+   */
+  private boolean evict(License license) {
+    boolean[] evicted = new boolean[1];
+    byUniqueKey.computeIfPresent(license.getUniqueKey(), (key, current) -> {
+      if (current != license) {
+        return current;
+      }
+      String serverId = serverId(current);
+      if (serverId != null) {
+        uniqueKeyByServerId.remove(serverId, key);
+      }
+      evicted[0] = true;
+      return null;
+    });
+    return evicted[0];
+  }
+
+  public int size() {
+    return byUniqueKey.size();
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  private static String serverId(License license) {
+    if (license == null) {
+      return null;
+    }
+    ServerInfo server = LazyAssociations.requireLoaded(license.getServerInfo(), "serverInfo",
+        License.GRAPH_SUMMARY);
+    return server == null ? null : server.getUniqueId();
+  }
+
+}
@@ -0,0 +1,21 @@
+package com.researchspace.licenseserver.scheduling;
+
+import com.researchspace.licenseserver.model.License;
+
+/**
+ * Callback for licenses becoming active or expiring, notified by a
+ * {@link LicenseTransitionScheduler}.
+ */
+public interface LicenseTransitionListener {
+
+  /**
+   * The license has passed its activation date.
+   */
+  void activated(License license);
+
+  /**
+   * The license has reached its expiry date.
+   */
+  void expired(License license);
+
+}
@@ -0,0 +1,217 @@
+package com.researchspace.licenseserver.scheduling;
+
+import com.researchspace.licenseserver.model.License;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Notifies a listener when licenses become active or expire, without polling every license.
+ * <p>
+ * Each scheduled license has at most two pending transitions in a priority queue ordered by
+ * time, so scheduling costs O(log n) and a tick with nothing due is a constant-time peek at the
+ * head of the queue. Ticks are driven by the caller, e.g. from a
+ * <code>ScheduledExecutorService</code> calling {@link #advance()} every minute.
+ * <p>
+ * After changing the activation or expiry date of a license, or revoking it, call
+ * {@link #schedule(License)} again: this supersedes the previously scheduled transitions of the
+ * license. Revoked licenses have no pending transitions. Superseded and cancelled transitions
+ * are discarded when they reach the head of the queue, or all at once when they outnumber the
+ * pending ones, so the queue holds at most about twice the pending transitions however often
+ * licenses are rescheduled, at an amortized constant cost per superseded transition.
+ * <p>
+ * Transitions that are already in the past when scheduled, i.e. at or before the last tick, are
+ * not notified. Listeners are called on the ticking thread, outside any lock.
+ */
+public class LicenseTransitionScheduler {
+
+  private enum Kind {
+    ACTIVATION, EXPIRY
+  }
+
+  private static final class Transition implements Comparable<Transition> {
+
+    private final long dueMillis;
+    private final Kind kind;
+    private final License license;
+    private final long generation;
+
+    private Transition(long dueMillis, Kind kind, License license, long generation) {
+      this.dueMillis = dueMillis;
+      this.kind = kind;
+      this.license = license;
+      this.generation = generation;
+    }
+
+    @Override
+    public int compareTo(Transition o) {
+      return Long.compare(dueMillis, o.dueMillis);
+    }
+  }
+
+  private final LicenseTransitionListener listener;
+
+  private final Clock clock;
+
+  /*
+   * The current schedule of a license: queued transitions with another generation have been
+   * superseded
+   */
+  private static final class Schedule {
+
+    private final long generation;
+    private int queued;
+
+    private Schedule(long generation) {
+      this.generation = generation;
+    }
+  }
+
+  private final PriorityQueue<Transition> queue = new PriorityQueue<>();
+
+  /*
+   * Current schedule per license unique key
+   */
+  private final Map<String, Schedule> schedules = new HashMap<>();
+
+  /*
+   * The number of queued transitions that were superseded or cancelled
+   */
+  private int stale;
+
+  private long nextGeneration;
+
+  private long lastTickMillis;
+
+  public LicenseTransitionScheduler(LicenseTransitionListener listener) {
+    this(listener, Clock.systemUTC());
+  }
+
+  /**
+   * @param clock the clock used by {@link #advance()}. Transitions before its current time are
+   *              never notified.
+   */
+  public LicenseTransitionScheduler(LicenseTransitionListener listener, Clock clock) {
+    this.listener = listener;
+    this.clock = clock;
+    this.lastTickMillis = clock.millis();
+  }
+
+  /**
+   * Schedules the upcoming transitions of the license, replacing any previously scheduled for the
+   * same unique key.
+   */
+  public synchronized void schedule(License license) {
+    String uniqueKey = license.getUniqueKey();
+    if (uniqueKey == null) {
+      throw new IllegalArgumentException("License must have a unique key");
+    }
+    cancel(uniqueKey);
+    if (license.isRevoked()) {
+      return;
+    }
+    // isActive() is true strictly after activation, and false from expiry onwards
+    long activation = license.activationMillis();
+    long expiry = license.expiryMillis();
+    if (expiry == Long.MIN_VALUE || expiry <= lastTickMillis) {
+      return;
+    }
+    Schedule schedule = new Schedule(nextGeneration++);
+    if (activation != Long.MAX_VALUE && activation + 1 > lastTickMillis) {
+      queue.add(new Transition(activation + 1, Kind.ACTIVATION, license, schedule.generation));
+      schedule.queued++;
+    }
+    queue.add(new Transition(expiry, Kind.EXPIRY, license, schedule.generation));
+    schedule.queued++;
+    schedules.put(uniqueKey, schedule);
+  }
+
+  /**
+   * Cancels the pending transitions of the license with the unique key.
+   */
+  public synchronized void cancel(String uniqueKey) {
+    Schedule schedule = schedules.remove(uniqueKey);
+    if (schedule != null) {
+      stale += schedule.queued;
+      if (stale > queue.size() - stale) {
+        compact();
+      }
+    }
+  }
+
+  /*
+   * Removes the stale transitions, in time linear in the size of the queue
+   */
+  private void compact() {
+    queue.removeIf(t -> !isPending(t));
+    stale = 0;
+  }
+
+  private boolean isPending(Transition transition) {
+    Schedule schedule = schedules.get(transition.license.getUniqueKey());
+    return schedule != null && schedule.generation == transition.generation;
+  }
+
+  /**
+   * Notifies all transitions due at the current time of the clock.
+   *
+   * @return the number of transitions notified
+   */
+  public int advance() {
+    return advanceTo(clock.millis());
+  }
+
+  /**
+   * Notifies all transitions due at or before <code>nowMillis</code>, in time order.
+   *
+   * @return the number of transitions notified
+   */
+  public int advanceTo(long nowMillis) {
+    List<Transition> due = new ArrayList<>();
+    synchronized (this) {
+      lastTickMillis = Math.max(lastTickMillis, nowMillis);
+      Transition head;
+      while ((head = queue.peek()) != null && head.dueMillis <= nowMillis) {
+        queue.poll();
+        String uniqueKey = head.license.getUniqueKey();
+        Schedule schedule = schedules.get(uniqueKey);
+        if (schedule == null || schedule.generation != head.generation) {
+          stale--;
+          continue;
+        }
+        schedule.queued--;
+        if (head.kind == Kind.EXPIRY) {
+          schedules.remove(uniqueKey);
+          stale += schedule.queued;
+        }
+        due.add(head);
+      }
+    }
+    for (Transition transition : due) {
+      if (transition.kind == Kind.ACTIVATION) {
+        listener.activated(transition.license);
+      } else {
+        listener.expired(transition.license);
+      }
+    }
+    return due.size();
+  }
+
+  /**
+   * The number of licenses with pending transitions.
+   */
+  public synchronized int size() {
+    return schedules.size();
+  }
+
+  /*
+   * The number of queued transitions, pending or stale
+   */
+  synchronized int queueSize() {
+    return queue.size();
+  }
+
+}
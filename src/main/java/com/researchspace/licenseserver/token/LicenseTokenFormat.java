@@ -0,0 +1,112 @@
+package com.researchspace.licenseserver.token;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.researchspace.licenseserver.model.License;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Date;
+
+/*
+ * Payload layout of signed license tokens, big-endian:
+ *
+ *  0  byte  version
+ *  1  byte  flags: revoked
+ *  2  long  issued at, epoch millis
+ * 10  long  token expiry, epoch millis
+ * 18  long  activation, epoch millis, Long.MAX_VALUE if not set
+ * 26  long  expiry, epoch millis, Long.MIN_VALUE if not set
+ * 34  int   total user seats
+ * 38  int   total free sysadmin seats
+ * 42  int   total free RSpace admin seats
+ * 46  int   used seat count
+ * 50  short unique key length, followed by the UTF-8 unique key
+ *
+ * The token is the URL-safe base64 of the payload and of its Ed25519 signature, joined by '.'.
+ * Version 1 had no token expiry and is no longer accepted.
+ */
+final class LicenseTokenFormat {
+
+  static final String ALGORITHM = "Ed25519";
+
+  static final byte VERSION = 2;
+
+  static final char SEPARATOR = '.';
+
+  private static final int REVOKED = 1;
+
+  private static final int HEADER_LENGTH = 52;
+
+  static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+  static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private LicenseTokenFormat() {
+  }
+
+  static byte[] payload(License license, long issuedAtMillis, long expiresAtMillis) {
+    if (license.getUniqueKey() == null) {
+      throw new IllegalArgumentException("License has no unique key");
+    }
+    byte[] key = license.getUniqueKey().getBytes(UTF_8);
+    if (key.length > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("Unique key too long: " + key.length + " bytes");
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + key.length);
+    buffer.put(VERSION);
+    buffer.put((byte) (license.isRevoked() ? REVOKED : 0));
+    buffer.putLong(issuedAtMillis);
+    buffer.putLong(expiresAtMillis);
+    buffer.putLong(license.activationMillis());
+    buffer.putLong(license.expiryMillis());
+    buffer.putInt(license.getTotalUserSeats());
+    buffer.putInt(license.getTotalFreeSysadmin());
+    buffer.putInt(license.getTotalFreeRSpaceadmin());
+    buffer.putInt(license.getUsedSeatCount());
+    buffer.putShort((short) key.length);
+    buffer.put(key);
+    return buffer.array();
+  }
+
+  static long issuedAtMillis(byte[] payload) {
+    return ByteBuffer.wrap(payload).getLong(2);
+  }
+
+  static long expiresAtMillis(byte[] payload) {
+    return ByteBuffer.wrap(payload).getLong(10);
+  }
+
+  /*
+   * Materializes the license state of a payload whose signature has been verified
+   */
+  static License license(byte[] payload) {
+    ByteBuffer buffer = ByteBuffer.wrap(payload);
+    if (payload.length < HEADER_LENGTH) {
+      throw new IllegalArgumentException("Token payload too short");
+    }
+    if (buffer.get(0) != VERSION) {
+      throw new IllegalArgumentException("Unsupported token version " + buffer.get(0));
+    }
+    int keyLength = buffer.getShort(50);
+    if (keyLength < 0 || keyLength != payload.length - HEADER_LENGTH) {
+      throw new IllegalArgumentException("Invalid unique key length " + keyLength);
+    }
+    License license = new License();
+    license.setUniqueKey(new String(payload, HEADER_LENGTH, keyLength, UTF_8));
+    license.setRevoked((buffer.get(1) & REVOKED) != 0);
+    long activation = buffer.getLong(18);
+    long expiry = buffer.getLong(26);
+    if (activation != Long.MAX_VALUE) {
+      license.setActivationDate(new Date(activation));
+    }
+    if (expiry != Long.MIN_VALUE) {
+      license.setExpiryDate(new Date(expiry));
+    }
+    license.setTotalUserSeats(buffer.getInt(34));
+    license.setTotalFreeSysadmin(buffer.getInt(38));
+    license.setTotalFreeRSpaceadmin(buffer.getInt(42));
+    license.setUsedSeatCount(buffer.getInt(46));
+    return license;
+  }
+
+}
@@ -0,0 +1,91 @@
+package com.researchspace.licenseserver.token;
+
+import com.researchspace.licenseserver.model.License;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Issues signed license tokens, which RSpace instances check offline with a
+ * {@link LicenseTokenVerifier} holding the matching public key.
+ * <p>
+ * A token carries the unique key, activation and expiry dates, seat limits, used seat count and
+ * revoked flag of the license, plus the time it was issued and the time it expires, signed with
+ * Ed25519. Tokens are about 160 characters and URL-safe. A token is a snapshot: changes to the
+ * license, including revocation, reach an instance when it next refreshes its token, and
+ * verifiers reject it once it expires, {@link #DEFAULT_VALIDITY} after issue unless configured
+ * otherwise.
+ */
+public class LicenseTokenSigner {
+
+  public static final Duration DEFAULT_VALIDITY = Duration.ofDays(7);
+
+  private final PrivateKey privateKey;
+
+  private final Clock clock;
+
+  private final long validityMillis;
+
+  public LicenseTokenSigner(PrivateKey privateKey) {
+    this(privateKey, Clock.systemUTC());
+  }
+
+  /**
+   * @param clock the clock providing the issue time of tokens
+   */
+  public LicenseTokenSigner(PrivateKey privateKey, Clock clock) {
+    this(privateKey, clock, DEFAULT_VALIDITY);
+  }
+
+  /**
+   * @param clock    the clock providing the issue time of tokens
+   * @param validity how long after issue tokens expire
+   * @throws IllegalArgumentException if the validity is not positive
+   */
+  public LicenseTokenSigner(PrivateKey privateKey, Clock clock, Duration validity) {
+    if (validity.isNegative() || validity.isZero()) {
+      throw new IllegalArgumentException("Validity must be positive");
+    }
+    this.privateKey = privateKey;
+    this.clock = clock;
+    this.validityMillis = validity.toMillis();
+  }
+
+  /**
+   * Generates a new Ed25519 key pair for signing and verifying tokens.
+   */
+  public static KeyPair generateKeyPair() {
+    try {
+      return KeyPairGenerator.getInstance(LicenseTokenFormat.ALGORITHM).generateKeyPair();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Ed25519 not supported by this JVM", e);
+    }
+  }
+
+  /**
+   * Issues a token for the current state of the license.
+   *
+   * @throws IllegalArgumentException if the license has no unique key
+   */
+  public String sign(License license) {
+    long issuedAt = clock.millis();
+    byte[] payload = LicenseTokenFormat.payload(license, issuedAt, issuedAt + validityMillis);
+    byte[] signature;
+    try {
+      Signature signer = Signature.getInstance(LicenseTokenFormat.ALGORITHM);
+      signer.initSign(privateKey);
+      signer.update(payload);
+      signature = signer.sign();
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Could not sign license token", e);
+    }
+    return LicenseTokenFormat.ENCODER.encodeToString(payload) + LicenseTokenFormat.SEPARATOR
+        + LicenseTokenFormat.ENCODER.encodeToString(signature);
+  }
+
+}
@@ -0,0 +1,164 @@
+package com.researchspace.licenseserver.token;
+
+import com.researchspace.licenseserver.model.LicenseSnapshot;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Verifies license tokens issued by a {@link LicenseTokenSigner} against its public key, without
+ * contacting the license server. Tokens are rejected once expired, or if issued in the future,
+ * allowing for a clock skew between signer and verifier of {@link #DEFAULT_CLOCK_SKEW} unless
+ * configured otherwise. Pass the expected unique key to
+ * {@link #verify(String, String)} so that a valid token of another license is rejected too.
+ * <p>
+ * The last successfully verified token is cached with its parsed state, so verifying the token
+ * an instance holds again costs a string comparison rather than a signature check. Thread-safe.
+ */
+public class LicenseTokenVerifier {
+
+  private static final class Cached {
+
+    private final String token;
+    private final VerifiedLicenseToken verified;
+
+    private Cached(String token, VerifiedLicenseToken verified) {
+      this.token = token;
+      this.verified = verified;
+    }
+  }
+
+  public static final Duration DEFAULT_CLOCK_SKEW = Duration.ofMinutes(5);
+
+  private final PublicKey publicKey;
+
+  private final Clock clock;
+
+  private final long clockSkewMillis;
+
+  private volatile Cached cached;
+
+  public LicenseTokenVerifier(PublicKey publicKey) {
+    this(publicKey, Clock.systemUTC(), DEFAULT_CLOCK_SKEW);
+  }
+
+  /**
+   * @param clock     the clock that token expiry is checked against
+   * @param clockSkew how far the signer's clock may be ahead of or behind this one
+   * @throws IllegalArgumentException if the clock skew is negative
+   */
+  public LicenseTokenVerifier(PublicKey publicKey, Clock clock, Duration clockSkew) {
+    if (clockSkew.isNegative()) {
+      throw new IllegalArgumentException("Clock skew must not be negative");
+    }
+    this.publicKey = publicKey;
+    this.clock = clock;
+    this.clockSkewMillis = clockSkew.toMillis();
+  }
+
+  /**
+   * A verifier for an X.509-encoded Ed25519 public key, as returned by
+   * <code>PublicKey.getEncoded()</code>.
+   *
+   * @throws IllegalArgumentException if the bytes are not such a key
+   */
+  public static LicenseTokenVerifier forEncodedPublicKey(byte[] encoded) {
+    return forEncodedPublicKey(encoded, Clock.systemUTC(), DEFAULT_CLOCK_SKEW);
+  }
+
+  /**
+   * As {@link #forEncodedPublicKey(byte[])}, with the clock and clock skew of
+   * {@link #LicenseTokenVerifier(PublicKey, Clock, Duration)}.
+   */
+  public static LicenseTokenVerifier forEncodedPublicKey(byte[] encoded, Clock clock,
+      Duration clockSkew) {
+    PublicKey publicKey;
+    try {
+      publicKey = KeyFactory.getInstance(LicenseTokenFormat.ALGORITHM)
+          .generatePublic(new X509EncodedKeySpec(encoded));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalArgumentException("Not an Ed25519 public key", e);
+    }
+    return new LicenseTokenVerifier(publicKey, clock, clockSkew);
+  }
+
+  /**
+   * Checks the token's signature and freshness and returns the license state it carries.
+   * Whether the license is active is up to the caller, as of their current time.
+   *
+   * @throws IllegalArgumentException if the token is malformed, was not signed with the
+   *                                  matching private key, has been tampered with, has expired
+   *                                  or was issued in the future
+   */
+  public VerifiedLicenseToken verify(String token) {
+    Cached last = cached;
+    VerifiedLicenseToken verified;
+    if (last != null && last.token.equals(token)) {
+      verified = last.verified;
+    } else {
+      verified = verifyUncached(token);
+      cached = new Cached(token, verified);
+    }
+    checkFresh(verified);
+    return verified;
+  }
+
+  /**
+   * As {@link #verify(String)}, also checking that the token is for the license with the unique
+   * key, e.g. the one this instance is configured with.
+   *
+   * @throws IllegalArgumentException also if the token is for another license
+   */
+  public VerifiedLicenseToken verify(String token, String expectedUniqueKey) {
+    VerifiedLicenseToken verified = verify(token);
+    if (!verified.getLicense().getUniqueKey().equals(expectedUniqueKey)) {
+      throw new IllegalArgumentException("License token is for another license");
+    }
+    return verified;
+  }
+
+  private void checkFresh(VerifiedLicenseToken verified) {
+    long now = clock.millis();
+    if (now - clockSkewMillis > verified.getExpiresAtMillis()) {
+      throw new IllegalArgumentException("License token expired");
+    }
+    if (now + clockSkewMillis < verified.getIssuedAtMillis()) {
+      throw new IllegalArgumentException("License token issued in the future");
+    }
+  }
+
+  private VerifiedLicenseToken verifyUncached(String token) {
+    int separator = token == null ? -1 : token.indexOf(LicenseTokenFormat.SEPARATOR);
+    if (separator < 0) {
+      throw new IllegalArgumentException("Not a license token");
+    }
+    byte[] payload;
+    byte[] signature;
+    try {
+      payload = LicenseTokenFormat.DECODER.decode(token.substring(0, separator));
+      signature = LicenseTokenFormat.DECODER.decode(token.substring(separator + 1));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("License token is not valid base64", e);
+    }
+    boolean valid;
+    try {
+      Signature verifier = Signature.getInstance(LicenseTokenFormat.ALGORITHM);
+      verifier.initVerify(publicKey);
+      verifier.update(payload);
+      valid = verifier.verify(signature);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalArgumentException("License token signature could not be checked", e);
+    }
+    if (!valid) {
+      throw new IllegalArgumentException("Invalid license token signature");
+    }
+    LicenseSnapshot license = LicenseSnapshot.of(LicenseTokenFormat.license(payload));
+    return new VerifiedLicenseToken(LicenseTokenFormat.issuedAtMillis(payload),
+        LicenseTokenFormat.expiresAtMillis(payload), license);
+  }
+
+}
@@ -0,0 +1,56 @@
+package com.researchspace.licenseserver.token;
+
+import com.researchspace.licenseserver.model.LicenseSnapshot;
+
+/**
+ * The license state carried by a token whose signature has been verified.
+ */
+public final class VerifiedLicenseToken {
+
+  private final long issuedAtMillis;
+
+  private final long expiresAtMillis;
+
+  private final LicenseSnapshot license;
+
+  VerifiedLicenseToken(long issuedAtMillis, long expiresAtMillis, LicenseSnapshot license) {
+    this.issuedAtMillis = issuedAtMillis;
+    this.expiresAtMillis = expiresAtMillis;
+    this.license = license;
+  }
+
+  public long getIssuedAtMillis() {
+    return issuedAtMillis;
+  }
+
+  /**
+   * The time the token expires, after which verifiers reject it, give or take their allowed
+   * clock skew.
+   */
+  public long getExpiresAtMillis() {
+    return expiresAtMillis;
+  }
+
+  /**
+   * The license as of {@link #getIssuedAtMillis()}, for the usual
+   * {@link LicenseSnapshot#isActive(long)} and {@link LicenseSnapshot#permits} checks.
+   */
+  public LicenseSnapshot getLicense() {
+    return license;
+  }
+
+  /**
+   * Whether the token was issued more than <code>maxAgeMillis</code> before
+   * <code>nowMillis</code> and should be refreshed from the license server.
+   */
+  public boolean isStale(long nowMillis, long maxAgeMillis) {
+    return nowMillis - issuedAtMillis > maxAgeMillis;
+  }
+
+  @Override
+  public String toString() {
+    return "VerifiedLicenseToken [issuedAtMillis=" + issuedAtMillis + ", expiresAtMillis="
+        + expiresAtMillis + ", license=" + license + "]";
+  }
+
+}
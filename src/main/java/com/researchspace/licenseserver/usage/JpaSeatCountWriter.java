@@ -0,0 +1,123 @@
+package com.researchspace.licenseserver.usage;
+
+import com.researchspace.licenseserver.model.License;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.LockTimeoutException;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
+import javax.persistence.PessimisticLockException;
+import org.hibernate.Session;
+import org.hibernate.exception.LockAcquisitionException;
+
+/**
+ * Writes a batch of used seat counts in one transaction, loading each license by its natural id
+ * so that lookups can be served from the second-level cache. Only licenses whose count changed
+ * are updated, each with a version check.
+ * <p>
+ * If the transaction fails on a row conflict, i.e. an optimistic version check or a row lock held
+ * by another transaction, the batch is split in halves, each written in its own transaction
+ * against freshly loaded licenses, down to single licenses. A conflicting license thus only holds
+ * back itself; isolating k conflicting licenses in a batch of n takes up to about
+ * <code>2k log2(n/k)</code> extra transactions, and up to <code>2n - 1</code> if every license
+ * conflicts. Licenses that still fail are reported in a {@link SeatCountWriteException}, for the
+ * {@link SeatCountCoalescer} to retry.
+ * <p>
+ * Any other failure, such as a lost connection or a schema error, would fail every part of the
+ * batch alike, so it is not split: every license not yet written is reported as failed, with no
+ * further attempt. Unknown unique keys are ignored.
+ */
+public class JpaSeatCountWriter implements SeatCountWriter {
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  public JpaSeatCountWriter(EntityManagerFactory entityManagerFactory) {
+    this.entityManagerFactory = entityManagerFactory;
+  }
+
+  @Override
+  public void write(Map<String, Integer> usedSeatCounts) {
+    Set<String> written = new HashSet<>();
+    PersistenceException failure;
+    try {
+      failure = write(new ArrayList<>(usedSeatCounts.entrySet()), written);
+    } catch (PersistenceException e) {
+      // not a row conflict, so not retried for parts of the batch
+      failure = e;
+    }
+    if (failure != null) {
+      Set<String> failed = new LinkedHashSet<>(usedSeatCounts.keySet());
+      failed.removeAll(written);
+      throw new SeatCountWriteException(failed, failure);
+    }
+  }
+
+  /*
+   * Writes the counts, splitting on row conflicts; returns the last conflict of a single license
+   * and throws any other failure
+   */
+  private PersistenceException write(List<Map.Entry<String, Integer>> counts,
+      Set<String> written) {
+    try {
+      writeInTransaction(counts);
+      for (Map.Entry<String, Integer> count : counts) {
+        written.add(count.getKey());
+      }
+      return null;
+    } catch (PersistenceException e) {
+      if (!isRowConflict(e)) {
+        throw e;
+      }
+      if (counts.size() == 1) {
+        return e;
+      }
+      int half = counts.size() / 2;
+      PersistenceException first = write(counts.subList(0, half), written);
+      PersistenceException second = write(counts.subList(half, counts.size()), written);
+      return second != null ? second : first;
+    }
+  }
+
+  /*
+   * Whether the failure is specific to some of the rows written, rather than to the database
+   */
+  private static boolean isRowConflict(Throwable e) {
+    for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+      if (t instanceof OptimisticLockException || t instanceof PessimisticLockException
+          || t instanceof LockTimeoutException || t instanceof LockAcquisitionException
+          || t instanceof org.hibernate.PessimisticLockException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void writeInTransaction(List<Map.Entry<String, Integer>> counts) {
+    EntityManager em = entityManagerFactory.createEntityManager();
+    EntityTransaction tx = em.getTransaction();
+    try {
+      tx.begin();
+      Session session = em.unwrap(Session.class);
+      for (Map.Entry<String, Integer> count : counts) {
+        License license = session.bySimpleNaturalId(License.class).load(count.getKey());
+        if (license != null && license.getUsedSeatCount() != count.getValue()) {
+          license.setUsedSeatCount(count.getValue());
+        }
+      }
+      tx.commit();
+    } finally {
+      if (tx.isActive()) {
+        tx.rollback();
+      }
+      em.close();
+    }
+  }
+
+}
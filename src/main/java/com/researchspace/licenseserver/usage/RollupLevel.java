@@ -0,0 +1,105 @@
+package com.researchspace.licenseserver.usage;
+
+import com.researchspace.licenseserver.usage.SeatUsageRollup.Resolution;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Ring of the most recent buckets of one resolution, in parallel primitive arrays. A bucket
+ * lives in slot (bucket number mod capacity); the stored start tells whether a slot holds the
+ * wanted bucket or a stale one. Not thread-safe.
+ */
+final class RollupLevel {
+
+  private final Resolution resolution;
+  private final long width;
+  private final int capacity;
+
+  private final long[] starts;
+  private final int[] mins;
+  private final int[] maxs;
+  private final long[] sums;
+  private final int[] counts;
+
+  private long newestBucket = Long.MIN_VALUE;
+
+  RollupLevel(Resolution resolution, int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least 1 but was " + capacity);
+    }
+    this.resolution = resolution;
+    this.width = resolution.getMillis();
+    this.capacity = capacity;
+    this.starts = new long[capacity];
+    this.mins = new int[capacity];
+    this.maxs = new int[capacity];
+    this.sums = new long[capacity];
+    this.counts = new int[capacity];
+    Arrays.fill(starts, Long.MIN_VALUE);
+  }
+
+  Resolution getResolution() {
+    return resolution;
+  }
+
+  void add(long timestampMillis, int value) {
+    long bucket = Math.floorDiv(timestampMillis, width);
+    if (newestBucket != Long.MIN_VALUE && bucket <= newestBucket - capacity) {
+      return; // older than retained
+    }
+    newestBucket = Math.max(newestBucket, bucket);
+    int slot = slot(bucket);
+    long start = bucket * width;
+    if (starts[slot] != start) {
+      starts[slot] = start;
+      mins[slot] = value;
+      maxs[slot] = value;
+      sums[slot] = value;
+      counts[slot] = 1;
+    } else {
+      mins[slot] = Math.min(mins[slot], value);
+      maxs[slot] = Math.max(maxs[slot], value);
+      sums[slot] += value;
+      counts[slot]++;
+    }
+  }
+
+  private int slot(long bucket) {
+    return (int) Math.floorMod(bucket, (long) capacity);
+  }
+
+  /*
+   * Start of the oldest retained bucket, or Long.MAX_VALUE if empty
+   */
+  long oldestRetainedMillis() {
+    return newestBucket == Long.MIN_VALUE ? Long.MAX_VALUE
+        : (newestBucket - capacity + 1) * width;
+  }
+
+  /*
+   * Number of buckets the range [from, to) touches
+   */
+  long bucketsIn(long fromMillis, long toMillis) {
+    return Math.floorDiv(toMillis - 1, width) - Math.floorDiv(fromMillis, width) + 1;
+  }
+
+  /*
+   * Appends the non-empty buckets overlapping [from, to), oldest first
+   */
+  void collect(long fromMillis, long toMillis, List<SeatUsageRollup> out) {
+    if (newestBucket == Long.MIN_VALUE || toMillis <= fromMillis) {
+      return;
+    }
+    long first = Math.max(Math.floorDiv(fromMillis, width), newestBucket - capacity + 1);
+    long last = Math.min(Math.floorDiv(toMillis - 1, width), newestBucket);
+    for (long bucket = first; bucket <= last; bucket++) {
+      int slot = slot(bucket);
+      long start = bucket * width;
+      if (starts[slot] == start) {
+        out.add(new SeatUsageRollup(resolution, start, start + width, mins[slot], maxs[slot],
+            sums[slot], counts[slot]));
+      }
+    }
+  }
+
+}
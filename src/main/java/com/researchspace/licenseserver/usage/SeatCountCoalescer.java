@@ -0,0 +1,172 @@
+package com.researchspace.licenseserver.usage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind buffer for <code>License.usedSeatCount</code> reported by heartbeats.
+ * <p>
+ * Heartbeats {@link #record(String, int)} counts, which only replaces the pending count of the
+ * license in memory. Each {@link #flush()} hands the latest count of every license with a pending
+ * one to the {@link SeatCountWriter} in a single batch, so however many heartbeats a license
+ * receives in an interval, it is written once.
+ * <p>
+ * Counts recorded while a flush is in progress are kept for the next flush. If the writer
+ * throws, the batch stays pending and is retried, unless newer counts are recorded meanwhile; if
+ * it throws a {@link SeatCountWriteException}, only the counts it names stay pending. Failures
+ * are counted in {@link #failureCount()}, the latest kept as {@link #lastFailure()}, and those of
+ * scheduled flushes are logged. Flushes are driven by the caller, or by
+ * {@link #start(ScheduledExecutorService, long, TimeUnit)}.
+ */
+public class SeatCountCoalescer implements AutoCloseable {
+
+  private static final Logger LOG = Logger.getLogger(SeatCountCoalescer.class.getName());
+
+  private final SeatCountWriter writer;
+
+  private final ConcurrentHashMap<String, Integer> pending = new ConcurrentHashMap<>();
+
+  private final LongAdder recorded = new LongAdder();
+
+  private final LongAdder written = new LongAdder();
+
+  private final LongAdder failures = new LongAdder();
+
+  private volatile RuntimeException lastFailure;
+
+  private ScheduledFuture<?> scheduled;
+
+  public SeatCountCoalescer(SeatCountWriter writer) {
+    this.writer = writer;
+  }
+
+  /**
+   * Records the used seat count of a license, superseding any count pending for it.
+   *
+   * @throws IllegalArgumentException if <code>usedSeatCount</code> is negative
+   */
+  public void record(String uniqueKey, int usedSeatCount) {
+    if (usedSeatCount < 0) {
+      throw new IllegalArgumentException("Used seat count must be >= 0 but was " + usedSeatCount);
+    }
+    pending.put(uniqueKey, usedSeatCount);
+    recorded.increment();
+  }
+
+  /**
+   * Writes the pending counts as one batch.
+   *
+   * @return the number of licenses written
+   * @throws RuntimeException as thrown by the writer
+   */
+  public synchronized int flush() {
+    if (pending.isEmpty()) {
+      return 0;
+    }
+    Map<String, Integer> batch = new HashMap<>(pending);
+    try {
+      writer.write(batch);
+    } catch (SeatCountWriteException e) {
+      batch.keySet().removeAll(e.getFailedKeys());
+      removeWritten(batch);
+      recordFailure(e);
+      throw e;
+    } catch (RuntimeException e) {
+      recordFailure(e);
+      throw e;
+    }
+    removeWritten(batch);
+    return batch.size();
+  }
+
+  private void removeWritten(Map<String, Integer> batch) {
+    // keep counts recorded since the batch was taken
+    batch.forEach(pending::remove);
+    written.add(batch.size());
+  }
+
+  private void recordFailure(RuntimeException e) {
+    failures.increment();
+    lastFailure = e;
+  }
+
+  /**
+   * Flushes every <code>interval</code> on the executor. Writer failures are retried at the next
+   * interval.
+   *
+   * @throws IllegalStateException if already started
+   */
+  public synchronized void start(ScheduledExecutorService executor, long interval,
+      TimeUnit unit) {
+    if (scheduled != null) {
+      throw new IllegalStateException("Already started");
+    }
+    scheduled = executor.scheduleWithFixedDelay(this::flushQuietly, interval, interval, unit);
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      // still pending, retried at the next interval
+      LOG.log(Level.WARNING, "Failed to write used seat counts, "
+          + pending.size() + " pending for retry", e);
+    }
+  }
+
+  /**
+   * Stops scheduled flushing, if started, and flushes the pending counts.
+   */
+  @Override
+  public synchronized void close() {
+    if (scheduled != null) {
+      scheduled.cancel(false);
+      scheduled = null;
+    }
+    flush();
+  }
+
+  /**
+   * The number of licenses with a pending count.
+   */
+  public int pendingCount() {
+    return pending.size();
+  }
+
+  /**
+   * The number of counts recorded so far.
+   */
+  public long recordedCount() {
+    return recorded.sum();
+  }
+
+  /**
+   * The number of license updates written so far; the difference to {@link #recordedCount()}
+   * is the writes saved.
+   */
+  public long writtenCount() {
+    return written.sum();
+  }
+
+  /**
+   * The number of flushes that failed, in whole or in part.
+   */
+  public long failureCount() {
+    return failures.sum();
+  }
+
+  /**
+   * The exception of the latest failed flush, or <code>null</code> if none failed.
+   */
+  public RuntimeException lastFailure() {
+    return lastFailure;
+  }
+
+}
@@ -0,0 +1,33 @@
+package com.researchspace.licenseserver.usage;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Thrown by a {@link SeatCountWriter} that wrote only part of a batch. The
+ * {@link SeatCountCoalescer} then keeps just the failed counts pending.
+ */
+public class SeatCountWriteException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Set<String> failedKeys;
+
+  /**
+   * @param failedKeys the unique keys of the licenses not written
+   * @param cause      the failure of one of them
+   */
+  public SeatCountWriteException(Set<String> failedKeys, Throwable cause) {
+    super("Used seat counts of " + failedKeys.size() + " licenses not written: " + failedKeys,
+        cause);
+    this.failedKeys = Collections.unmodifiableSet(failedKeys);
+  }
+
+  /**
+   * The unique keys of the licenses whose counts were not written; the others were.
+   */
+  public Set<String> getFailedKeys() {
+    return failedKeys;
+  }
+
+}
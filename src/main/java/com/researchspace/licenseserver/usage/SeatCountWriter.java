@@ -0,0 +1,21 @@
+package com.researchspace.licenseserver.usage;
+
+import java.util.Map;
+
+/**
+ * Persists the used seat counts flushed by a {@link SeatCountCoalescer}.
+ */
+public interface SeatCountWriter {
+
+  /**
+   * Writes the latest used seat count of each license, as one batch.
+   *
+   * @param usedSeatCounts used seat count by license unique key, never empty
+   * @throws SeatCountWriteException if only some of the counts were written; the failed ones
+   *                                 are retried on the next flush unless superseded
+   * @throws RuntimeException         if the batch could not be written; its counts are then
+   *                                 retried on the next flush unless superseded
+   */
+  void write(Map<String, Integer> usedSeatCounts);
+
+}
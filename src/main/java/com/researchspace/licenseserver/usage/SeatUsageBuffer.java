@@ -0,0 +1,109 @@
+package com.researchspace.licenseserver.usage;
+
+/**
+ * Bounded ingestion buffer of seat usage samples, decoupling heartbeat threads from the rollup
+ * work of a {@link SeatUsageHistory}.
+ * <p>
+ * Samples are held in parallel primitive arrays rather than as objects. There are two sets of
+ * arrays: {@link #drainTo(SeatUsageHistory)} swaps them, so producers keep appending to one while
+ * the other is applied to the history, and adding a sample never waits for the rollups.
+ */
+public class SeatUsageBuffer {
+
+  private static final class Samples {
+
+    private final String[] keys;
+    private final long[] timestamps;
+    private final int[] counts;
+    private int size;
+
+    private Samples(int capacity) {
+      keys = new String[capacity];
+      timestamps = new long[capacity];
+      counts = new int[capacity];
+    }
+  }
+
+  private Samples active;
+
+  private Samples spare;
+
+  private final Object drainLock = new Object();
+
+  private long dropped;
+
+  /**
+   * @param capacity the number of samples buffered between drains
+   */
+  public SeatUsageBuffer(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least 1 but was " + capacity);
+    }
+    active = new Samples(capacity);
+    spare = new Samples(capacity);
+  }
+
+  public boolean add(SeatUsageSample sample) {
+    return add(sample.getUniqueKey(), sample.getTimestampMillis(), sample.getUsedSeatCount());
+  }
+
+  /**
+   * Buffers a sample.
+   *
+   * @return <code>false</code> if the buffer is full and the sample was dropped
+   * @throws IllegalArgumentException if <code>usedSeatCount</code> is negative
+   */
+  public synchronized boolean add(String uniqueKey, long timestampMillis, int usedSeatCount) {
+    if (usedSeatCount < 0) {
+      throw new IllegalArgumentException("Used seat count must be >= 0 but was " + usedSeatCount);
+    }
+    Samples a = active;
+    if (a.size == a.keys.length) {
+      dropped++;
+      return false;
+    }
+    a.keys[a.size] = uniqueKey;
+    a.timestamps[a.size] = timestampMillis;
+    a.counts[a.size] = usedSeatCount;
+    a.size++;
+    return true;
+  }
+
+  /**
+   * Applies the buffered samples to the history, in the order they were added.
+   *
+   * @return the number of samples applied
+   */
+  public int drainTo(SeatUsageHistory history) {
+    synchronized (drainLock) {
+      Samples full;
+      synchronized (this) {
+        full = active;
+        active = spare;
+      }
+      int n = full.size;
+      for (int i = 0; i < n; i++) {
+        history.record(full.keys[i], full.timestamps[i], full.counts[i]);
+        full.keys[i] = null;
+      }
+      full.size = 0;
+      spare = full;
+      return n;
+    }
+  }
+
+  /**
+   * The number of samples waiting to be drained.
+   */
+  public synchronized int size() {
+    return active.size;
+  }
+
+  /**
+   * The number of samples dropped because the buffer was full.
+   */
+  public synchronized long droppedCount() {
+    return dropped;
+  }
+
+}
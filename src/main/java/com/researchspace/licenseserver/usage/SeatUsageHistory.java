@@ -0,0 +1,161 @@
+package com.researchspace.licenseserver.usage;
+
+import com.researchspace.licenseserver.usage.SeatUsageRollup.Resolution;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory seat usage history per license, kept as minute, hour and day rollups that are
+ * updated incrementally as samples are recorded. Raw samples are not kept.
+ * <p>
+ * Each resolution retains a fixed number of the most recent buckets, by default a day of
+ * minutes, 31 days of hours and two years of days, about 80 KB per license. Range queries read
+ * only the buckets of one resolution, so a year of usage is a few hundred rollups whatever the
+ * sampling rate. Samples older than a resolution's retention are ignored by it.
+ * <p>
+ * Thread-safe; recording and querying different licenses do not contend.
+ */
+public class SeatUsageHistory {
+
+  public static final int DEFAULT_MINUTE_BUCKETS = 24 * 60;
+  public static final int DEFAULT_HOUR_BUCKETS = 31 * 24;
+  public static final int DEFAULT_DAY_BUCKETS = 2 * 366;
+
+  /**
+   * Default limit on the rollups returned by {@link #query(String, long, long)}.
+   */
+  public static final int DEFAULT_MAX_ROWS = 500;
+
+  private final int[] capacities;
+
+  private final ConcurrentHashMap<String, RollupLevel[]> byUniqueKey = new ConcurrentHashMap<>();
+
+  public SeatUsageHistory() {
+    this(DEFAULT_MINUTE_BUCKETS, DEFAULT_HOUR_BUCKETS, DEFAULT_DAY_BUCKETS);
+  }
+
+  /**
+   * @throws IllegalArgumentException if any number of buckets is less than 1
+   */
+  public SeatUsageHistory(int minuteBuckets, int hourBuckets, int dayBuckets) {
+    this.capacities = new int[]{minuteBuckets, hourBuckets, dayBuckets};
+    for (int capacity : capacities) {
+      if (capacity < 1) {
+        throw new IllegalArgumentException("Bucket counts must be at least 1");
+      }
+    }
+  }
+
+  public void record(SeatUsageSample sample) {
+    record(sample.getUniqueKey(), sample.getTimestampMillis(), sample.getUsedSeatCount());
+  }
+
+  /**
+   * Adds a sample to the rollups of the license.
+   */
+  public void record(String uniqueKey, long timestampMillis, int usedSeatCount) {
+    RollupLevel[] levels = byUniqueKey.computeIfAbsent(uniqueKey, k -> newLevels());
+    synchronized (levels) {
+      for (RollupLevel level : levels) {
+        level.add(timestampMillis, usedSeatCount);
+      }
+    }
+  }
+
+  private RollupLevel[] newLevels() {
+    Resolution[] resolutions = Resolution.values();
+    RollupLevel[] levels = new RollupLevel[resolutions.length];
+    for (int i = 0; i < levels.length; i++) {
+      levels[i] = new RollupLevel(resolutions[i], capacities[i]);
+    }
+    return levels;
+  }
+
+  /**
+   * The non-empty buckets of the given resolution overlapping <code>[fromMillis,
+   * toMillis)</code>, oldest first. Buckets outside the resolution's retention are missing.
+   */
+  public List<SeatUsageRollup> query(String uniqueKey, Resolution resolution, long fromMillis,
+      long toMillis) {
+    RollupLevel[] levels = byUniqueKey.get(uniqueKey);
+    if (levels == null) {
+      return Collections.emptyList();
+    }
+    List<SeatUsageRollup> rollups = new ArrayList<>();
+    synchronized (levels) {
+      levels[resolution.ordinal()].collect(fromMillis, toMillis, rollups);
+    }
+    return rollups;
+  }
+
+  /**
+   * As {@link #query(String, Resolution, long, long)} at {@link #resolutionFor}, with at most
+   * {@link #DEFAULT_MAX_ROWS} buckets.
+   */
+  public List<SeatUsageRollup> query(String uniqueKey, long fromMillis, long toMillis) {
+    return query(uniqueKey, resolutionFor(uniqueKey, fromMillis, toMillis, DEFAULT_MAX_ROWS),
+        fromMillis, toMillis);
+  }
+
+  /**
+   * The finest resolution that still retains <code>fromMillis</code> and covers the range in at
+   * most <code>maxRows</code> buckets, else {@link Resolution#DAY}.
+   */
+  public Resolution resolutionFor(String uniqueKey, long fromMillis, long toMillis, int maxRows) {
+    RollupLevel[] levels = byUniqueKey.get(uniqueKey);
+    if (levels != null) {
+      synchronized (levels) {
+        for (RollupLevel level : levels) {
+          if (level.oldestRetainedMillis() <= fromMillis
+              && level.bucketsIn(fromMillis, toMillis) <= maxRows) {
+            return level.getResolution();
+          }
+        }
+      }
+    }
+    return Resolution.DAY;
+  }
+
+  /**
+   * Minimum, maximum and average over <code>[fromMillis, toMillis)</code>, computed from the
+   * buckets returned by {@link #query(String, long, long)}. The range is thereby widened to the
+   * bucket boundaries of that resolution. Returns <code>null</code> if there are no samples in
+   * the range.
+   */
+  public SeatUsageRollup summarize(String uniqueKey, long fromMillis, long toMillis) {
+    List<SeatUsageRollup> rollups = query(uniqueKey, fromMillis, toMillis);
+    if (rollups.isEmpty()) {
+      return null;
+    }
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    long sum = 0;
+    int count = 0;
+    for (SeatUsageRollup rollup : rollups) {
+      min = Math.min(min, rollup.getMin());
+      max = Math.max(max, rollup.getMax());
+      sum += rollup.getSum();
+      count += rollup.getSampleCount();
+    }
+    SeatUsageRollup first = rollups.get(0);
+    return new SeatUsageRollup(first.getResolution(), first.getStartMillis(),
+        rollups.get(rollups.size() - 1).getEndMillis(), min, max, sum, count);
+  }
+
+  /**
+   * Drops the history of a license.
+   */
+  public void remove(String uniqueKey) {
+    byUniqueKey.remove(uniqueKey);
+  }
+
+  /**
+   * The number of licenses with a history.
+   */
+  public int size() {
+    return byUniqueKey.size();
+  }
+
+}
@@ -0,0 +1,98 @@
+package com.researchspace.licenseserver.usage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimum, maximum and average used seat count of a license over one time bucket, or over a
+ * range of buckets.
+ */
+public final class SeatUsageRollup {
+
+  /**
+   * Bucket widths of the rollups. Buckets are aligned to the epoch, i.e. days start at midnight
+   * UTC.
+   */
+  public enum Resolution {
+    MINUTE(TimeUnit.MINUTES.toMillis(1)),
+    HOUR(TimeUnit.HOURS.toMillis(1)),
+    DAY(TimeUnit.DAYS.toMillis(1));
+
+    private final long millis;
+
+    Resolution(long millis) {
+      this.millis = millis;
+    }
+
+    public long getMillis() {
+      return millis;
+    }
+  }
+
+  private final Resolution resolution;
+  private final long startMillis;
+  private final long endMillis;
+  private final int min;
+  private final int max;
+  private final long sum;
+  private final int sampleCount;
+
+  SeatUsageRollup(Resolution resolution, long startMillis, long endMillis, int min, int max,
+      long sum, int sampleCount) {
+    this.resolution = resolution;
+    this.startMillis = startMillis;
+    this.endMillis = endMillis;
+    this.min = min;
+    this.max = max;
+    this.sum = sum;
+    this.sampleCount = sampleCount;
+  }
+
+  public Resolution getResolution() {
+    return resolution;
+  }
+
+  /**
+   * Start of the covered time, inclusive.
+   */
+  public long getStartMillis() {
+    return startMillis;
+  }
+
+  /**
+   * End of the covered time, exclusive.
+   */
+  public long getEndMillis() {
+    return endMillis;
+  }
+
+  public int getMin() {
+    return min;
+  }
+
+  public int getMax() {
+    return max;
+  }
+
+  /**
+   * The mean of the samples, or 0 if there are none.
+   */
+  public double getAverage() {
+    return sampleCount == 0 ? 0 : (double) sum / sampleCount;
+  }
+
+  public int getSampleCount() {
+    return sampleCount;
+  }
+
+  long getSum() {
+    return sum;
+  }
+
+  @Override
+  public String toString() {
+    return "SeatUsageRollup [resolution=" + resolution + ", startMillis=" + startMillis
+        + ", endMillis=" + endMillis + ", min=" + min + ", max=" + max + ", average="
+        + getAverage() + ", sampleCount=" + sampleCount + "]";
+  }
+
+}
@@ -0,0 +1,66 @@
+package com.researchspace.licenseserver.usage;
+
+import java.util.Objects;
+
+/**
+ * A used seat count reported by a license's server at a point in time.
+ */
+public final class SeatUsageSample {
+
+  private final String uniqueKey;
+  private final long timestampMillis;
+  private final int usedSeatCount;
+
+  /**
+   * @throws IllegalArgumentException if <code>uniqueKey</code> is null or
+   *                                  <code>usedSeatCount</code> is negative
+   */
+  public SeatUsageSample(String uniqueKey, long timestampMillis, int usedSeatCount) {
+    if (uniqueKey == null) {
+      throw new IllegalArgumentException("Unique key must not be null");
+    }
+    if (usedSeatCount < 0) {
+      throw new IllegalArgumentException("Used seat count must be >= 0 but was " + usedSeatCount);
+    }
+    this.uniqueKey = uniqueKey;
+    this.timestampMillis = timestampMillis;
+    this.usedSeatCount = usedSeatCount;
+  }
+
+  public String getUniqueKey() {
+    return uniqueKey;
+  }
+
+  public long getTimestampMillis() {
+    return timestampMillis;
+  }
+
+  public int getUsedSeatCount() {
+    return usedSeatCount;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof SeatUsageSample)) {
+      return false;
+    }
+    SeatUsageSample other = (SeatUsageSample) obj;
+    return timestampMillis == other.timestampMillis && usedSeatCount == other.usedSeatCount
+        && uniqueKey.equals(other.uniqueKey);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(uniqueKey, timestampMillis, usedSeatCount);
+  }
+
+  @Override
+  public String toString() {
+    return "SeatUsageSample [uniqueKey=" + uniqueKey + ", timestampMillis=" + timestampMillis
+        + ", usedSeatCount=" + usedSeatCount + "]";
+  }
+
+}
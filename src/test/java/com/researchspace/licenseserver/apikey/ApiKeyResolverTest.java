@@ -0,0 +1,147 @@
+package com.researchspace.licenseserver.apikey;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ApiKeyResolverTest {
+
+  private static final class MutableClock extends Clock {
+
+    private long millis;
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+  }
+
+  private final Map<String, StoredApiKey> stored = new HashMap<>();
+
+  private final AtomicInteger lookups = new AtomicInteger();
+
+  private final ApiKeyStore store = keyId -> {
+    lookups.incrementAndGet();
+    return stored.get(keyId);
+  };
+
+  private final MutableClock clock = new MutableClock();
+
+  private final ApiKeyResolver resolver = new ApiKeyResolver(store, 100,
+      Duration.ofMinutes(5), Duration.ofSeconds(30), clock);
+
+  private String issue(String licenseUniqueKey) {
+    ApiKeys.Generated generated = ApiKeys.generate(licenseUniqueKey);
+    stored.put(generated.getStored().getKeyId(), generated.getStored());
+    return generated.getApiKey();
+  }
+
+  @Test
+  public void testKeysAreStoredHashed() {
+    ApiKeys.Generated generated = ApiKeys.generate("license");
+    String apiKey = generated.getApiKey();
+    StoredApiKey key = generated.getStored();
+    Assertions.assertEquals(ApiKeys.keyId(apiKey), key.getKeyId());
+    Assertions.assertTrue(key.matches(ApiKeys.secret(apiKey)));
+    Assertions.assertFalse(key.matches(ApiKeys.secret(apiKey) + "x"));
+    Assertions.assertFalse(new String(key.getHash(), ISO_8859_1)
+        .contains(ApiKeys.secret(apiKey)));
+
+    // same secret, different salt, different hash
+    ApiKeys.Generated other = ApiKeys.generate("license");
+    Assertions.assertNotEquals(ApiKeys.keyId(apiKey), other.getStored().getKeyId());
+    Assertions.assertFalse(Arrays.equals(key.getSalt(), other.getStored().getSalt()));
+
+    Assertions.assertNull(ApiKeys.keyId("no-separator"));
+    Assertions.assertNull(ApiKeys.keyId(".secret"));
+    Assertions.assertNull(ApiKeys.secret("id."));
+    Assertions.assertNull(ApiKeys.keyId(null));
+  }
+
+  @Test
+  public void testResolveIsCached() {
+    String apiKey = issue("license");
+    for (int i = 0; i < 10; i++) {
+      Assertions.assertEquals("license", resolver.resolve(apiKey));
+    }
+    Assertions.assertEquals(1, lookups.get());
+
+    // a wrong secret is rejected from the cache
+    Assertions.assertNull(resolver.resolve(ApiKeys.keyId(apiKey) + ".wrong"));
+    Assertions.assertEquals(1, lookups.get());
+
+    clock.millis += Duration.ofMinutes(5).toMillis();
+    Assertions.assertEquals("license", resolver.resolve(apiKey));
+    Assertions.assertEquals(2, lookups.get());
+  }
+
+  @Test
+  public void testUnknownKeysAreNegativelyCached() {
+    for (int i = 0; i < 10; i++) {
+      Assertions.assertNull(resolver.resolve("unknown.secret"));
+    }
+    Assertions.assertEquals(1, lookups.get());
+    Assertions.assertNull(resolver.resolve("malformed"));
+    Assertions.assertEquals(1, lookups.get());
+
+    // negative entries expire sooner
+    clock.millis += Duration.ofSeconds(30).toMillis();
+    Assertions.assertNull(resolver.resolve("unknown.secret"));
+    Assertions.assertEquals(2, lookups.get());
+  }
+
+  @Test
+  public void testRevocationInvalidatesAtOnce() {
+    String apiKey = issue("license");
+    String otherKey = issue("other");
+    Assertions.assertEquals("license", resolver.resolve(apiKey));
+    Assertions.assertEquals("other", resolver.resolve(otherKey));
+
+    stored.remove(ApiKeys.keyId(apiKey));
+    Assertions.assertEquals("license", resolver.resolve(apiKey));
+    Assertions.assertEquals(1, resolver.invalidateLicense("license"));
+    Assertions.assertNull(resolver.resolve(apiKey));
+    Assertions.assertEquals("other", resolver.resolve(otherKey));
+    Assertions.assertEquals(3, lookups.get());
+
+    resolver.invalidateKey(ApiKeys.keyId(otherKey));
+    Assertions.assertEquals("other", resolver.resolve(otherKey));
+    Assertions.assertEquals(4, lookups.get());
+  }
+
+  @Test
+  public void testCacheIsBounded() {
+    ApiKeyResolver small = new ApiKeyResolver(store, 10, Duration.ofMinutes(5),
+        Duration.ofSeconds(30), clock);
+    String apiKey = issue("license");
+    small.resolve(apiKey);
+    for (int i = 0; i < 100; i++) {
+      small.resolve("unknown" + i + ".secret");
+      Assertions.assertTrue(small.size() <= 10);
+    }
+    // unknown ids are evicted before stored keys
+    int before = lookups.get();
+    Assertions.assertEquals("license", small.resolve(apiKey));
+    Assertions.assertEquals(before, lookups.get());
+  }
+}
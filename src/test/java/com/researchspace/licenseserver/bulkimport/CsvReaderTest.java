@@ -0,0 +1,70 @@
+package com.researchspace.licenseserver.bulkimport;
+
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CsvReaderTest {
+
+  @Test
+  public void testQuotingAndLineEnds() throws IOException {
+    CsvReader reader = new CsvReader(new StringReader(
+        "a,b,c\r\n\"x, y\",\"say \"\"hi\"\"\",\r\n\n\"multi\nline\",2,3\r4,,\"\""));
+    Assertions.assertArrayEquals(new String[]{"a", "b", "c"}, reader.next());
+    Assertions.assertEquals(1, reader.getLineNumber());
+    Assertions.assertArrayEquals(new String[]{"x, y", "say \"hi\"", ""}, reader.next());
+    Assertions.assertEquals(2, reader.getLineNumber());
+    Assertions.assertArrayEquals(new String[]{"multi\nline", "2", "3"}, reader.next());
+    Assertions.assertEquals(4, reader.getLineNumber());
+    Assertions.assertArrayEquals(new String[]{"4", "", ""}, reader.next());
+    Assertions.assertEquals(6, reader.getLineNumber());
+    Assertions.assertNull(reader.next());
+    Assertions.assertNull(reader.next());
+  }
+
+  @Test
+  public void testRecordsSpanningBufferRefills() throws IOException {
+    StringBuilder csv = new StringBuilder();
+    for (int i = 0; i < 20_000; i++) {
+      csv.append(i).append(",\"org ").append(i).append("\"\r\n");
+    }
+    CsvReader reader = new CsvReader(new StringReader(csv.toString()));
+    for (int i = 0; i < 20_000; i++) {
+      String[] record = reader.next();
+      Assertions.assertEquals(String.valueOf(i), record[0]);
+      Assertions.assertEquals("org " + i, record[1]);
+      Assertions.assertEquals(i + 1, reader.getLineNumber());
+    }
+    Assertions.assertNull(reader.next());
+  }
+
+  @Test
+  public void testMalformedQuotes() throws IOException {
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> new CsvReader(new StringReader("a,\"b\nc")).next());
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> new CsvReader(new StringReader("a,\"b\"c")).next());
+  }
+
+  @Test
+  public void testReadingResumesAfterMalformedRecord() throws IOException {
+    CsvReader reader = new CsvReader(new StringReader("a,\"b\"c,d\r\ne,f\n"
+        + "g,\"stray\nh,i\njk,l\n"
+        + "m,0123456789abcdef\nn,o\n\"unterminated"), 10);
+    Assertions.assertThrows(IllegalArgumentException.class, reader::next);
+    Assertions.assertEquals(1, reader.getLineNumber());
+    Assertions.assertArrayEquals(new String[]{"e", "f"}, reader.next());
+    Assertions.assertEquals(2, reader.getLineNumber());
+    // the stray quote runs on until the field is too long, on line 5
+    Assertions.assertThrows(IllegalArgumentException.class, reader::next);
+    Assertions.assertEquals(3, reader.getLineNumber());
+    Assertions.assertThrows(IllegalArgumentException.class, reader::next);
+    Assertions.assertEquals(6, reader.getLineNumber());
+    Assertions.assertArrayEquals(new String[]{"n", "o"}, reader.next());
+    Assertions.assertEquals(7, reader.getLineNumber());
+    Assertions.assertThrows(IllegalArgumentException.class, reader::next);
+    Assertions.assertEquals(8, reader.getLineNumber());
+    Assertions.assertNull(reader.next());
+  }
+}
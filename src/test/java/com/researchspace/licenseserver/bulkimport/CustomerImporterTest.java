@@ -0,0 +1,194 @@
+package com.researchspace.licenseserver.bulkimport;
+
+import com.researchspace.licenseserver.model.CustomerContact;
+import com.researchspace.licenseserver.model.CustomerInfo;
+import com.researchspace.licenseserver.model.JpaTestSupport;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import javax.validation.Validation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class CustomerImporterTest {
+
+  private static final String HEADER = "email,firstName,lastName,telephone,organisationName\n";
+
+  private static ExecutorService executor;
+
+  @BeforeAll
+  public static void setup() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    executor.shutdown();
+  }
+
+  private static CustomerImporter importer(int batchSize) {
+    return new CustomerImporter(Validation.buildDefaultValidatorFactory().getValidator(),
+        executor, batchSize, 2);
+  }
+
+  private static String row(String org, String first, String last, String email) {
+    return email + "," + first + "," + last + ",0131 123 456," + org + "\n";
+  }
+
+  private static String orgName(int org) {
+    // sorted by name
+    return String.format("Org %03d", org);
+  }
+
+  @Test
+  public void testImportInBatches() throws IOException {
+    StringBuilder csv = new StringBuilder(HEADER);
+    for (int org = 0; org < 100; org++) {
+      for (int i = 0; i < 25; i++) {
+        csv.append(row(orgName(org), "First" + i, "Last" + i, "c" + i + "@org" + org + ".com"));
+      }
+    }
+    List<List<CustomerInfo>> batches = Collections.synchronizedList(new ArrayList<>());
+    List<RowError> errors = new ArrayList<>();
+    ImportSummary summary = importer(100).importCsv(new StringReader(csv.toString()),
+        batches::add, errors::add);
+
+    Assertions.assertTrue(errors.isEmpty(), errors.toString());
+    Assertions.assertEquals(2500, summary.getRowsRead());
+    Assertions.assertEquals(2500, summary.getContactsImported());
+    Assertions.assertEquals(100, summary.getCustomersImported());
+    Assertions.assertEquals(25, summary.getBatchesWritten());
+    List<CustomerInfo> customers = batches.stream().flatMap(List::stream)
+        .collect(Collectors.toList());
+    for (int org = 0; org < 100; org++) {
+      CustomerInfo customer = customers.get(org);
+      Assertions.assertEquals(orgName(org), customer.getOrganisationName());
+      Assertions.assertEquals(25, customer.getContacts().size());
+      customer.getContacts().forEach(c -> Assertions.assertSame(customer, c.getCustomerInfo()));
+    }
+  }
+
+  @Test
+  public void testInvalidRowsAreReported() throws IOException {
+    String csv = HEADER
+        + row("Org", "Ann", "Smith", "ann@org.com")
+        + row("Org", "1234", "Smith", "not-an-email")
+        + "only,three,columns\n"
+        + row("", "Bob", "Jones", "bob@org.com")
+        + row("Other", "Cy", "Young", "cy@other.com")
+        + row("Org", "Di", "Lane", "di@org.com");
+    List<RowError> errors = new ArrayList<>();
+    List<CustomerInfo> imported = new ArrayList<>();
+    ImportSummary summary = importer(2).importCsv(new StringReader(csv), imported::addAll,
+        errors::add);
+
+    Assertions.assertEquals(6, summary.getRowsRead());
+    Assertions.assertEquals(4, summary.getRejectedRows());
+    Assertions.assertEquals(2, summary.getContactsImported());
+    Assertions.assertEquals(List.of("Org", "Other"), imported.stream()
+        .map(CustomerInfo::getOrganisationName).collect(Collectors.toList()));
+
+    Assertions.assertEquals(List.of(3L, 3L, 4L, 5L, 7L), errors.stream()
+        .map(RowError::getLineNumber).collect(Collectors.toList()), errors.toString());
+    Assertions.assertEquals(List.of("firstName", "email"), errors.subList(0, 2).stream()
+        .map(RowError::getProperty).sorted(Collections.reverseOrder())
+        .collect(Collectors.toList()));
+    Assertions.assertNull(errors.get(2).getProperty());
+    Assertions.assertEquals(CustomerImporter.ORGANISATION_NAME, errors.get(3).getProperty());
+    Assertions.assertTrue(errors.get(4).getMessage().contains("sorted"));
+  }
+
+  @Test
+  public void testMalformedRecordIsRejectedAlone() throws IOException {
+    String csv = HEADER
+        + row("Org", "Ann", "Smith", "ann@org.com")
+        + "\"bob@org.com\"x,Bob,Jones,0131 123 456,Org\n"
+        + row("Org", "Cy", "Young", "cy@org.com")
+        + "dee@org.com,\"Dee\" ,Lane,0131 123 456,Org\n"
+        + row("Org", "Ed", "Moss", "ed@org.com")
+        + "fay@org.com,Fay,Hill,0131 123 456,\"Org";
+    List<RowError> errors = new ArrayList<>();
+    List<CustomerInfo> imported = new ArrayList<>();
+    ImportSummary summary = importer(2).importCsv(new StringReader(csv), imported::addAll,
+        errors::add);
+
+    Assertions.assertEquals(List.of(3L, 5L, 7L), errors.stream()
+        .map(RowError::getLineNumber).collect(Collectors.toList()), errors.toString());
+    Assertions.assertEquals(3, summary.getRejectedRows());
+    Assertions.assertEquals(3, summary.getContactsImported());
+    Assertions.assertEquals(3, imported.get(0).getContacts().size());
+  }
+
+  @Test
+  public void testDuplicateEmailsKeepFirstByContactOrder() throws IOException {
+    String csv = HEADER
+        + row("Org", "Zed", "Smith", "shared@org.com")
+        + row("Org", "Ann", "Other", "unique@org.com")
+        + row("Org", "Ann", "Smith", "SHARED@org.com")
+        + row("Org", "Bea", "Smith", "shared@org.com");
+    List<RowError> errors = new ArrayList<>();
+    List<CustomerInfo> imported = new ArrayList<>();
+    ImportSummary summary = importer(1000).importCsv(new StringReader(csv), imported::addAll,
+        errors::add);
+
+    Assertions.assertEquals(2, summary.getDuplicateRows());
+    Assertions.assertEquals(0, summary.getRejectedRows());
+    List<String> firstNames = imported.get(0).getContacts().stream()
+        .map(CustomerContact::getFirstName).collect(Collectors.toList());
+    Assertions.assertEquals(List.of("Ann", "Ann"), firstNames);
+    Assertions.assertEquals(List.of(2L, 5L), errors.stream().map(RowError::getLineNumber)
+        .collect(Collectors.toList()));
+    errors.forEach(e -> Assertions.assertEquals("Duplicate of the contact on line 4",
+        e.getMessage()));
+  }
+
+  @Test
+  public void testHeaderIsRequired() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> importer(10)
+        .importCsv(new StringReader(""), c -> { }, e -> { }));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> importer(10)
+        .importCsv(new StringReader("firstName,lastName,email,telephone\n"), c -> { },
+            e -> { }));
+  }
+
+  @Test
+  public void testWriterFailureAbortsImport() {
+    String csv = HEADER + row("A", "Ann", "Smith", "a@a.com") + row("B", "Bo", "Smith", "b@b.com");
+    List<List<CustomerInfo>> written = new ArrayList<>();
+    Assertions.assertThrows(IllegalStateException.class, () -> importer(1).importCsv(
+        new StringReader(csv), batch -> {
+          written.add(batch);
+          throw new IllegalStateException("database down");
+        }, e -> { }));
+    Assertions.assertEquals(1, written.size());
+  }
+
+  @Test
+  public void testJpaBatchWriter() throws IOException {
+    EntityManagerFactory emf = JpaTestSupport.createEntityManagerFactory("customerimport");
+    try {
+      StringBuilder csv = new StringBuilder(HEADER);
+      for (int i = 0; i < 120; i++) {
+        csv.append(row("Org " + i / 40, "First" + i, "Last" + i, "c" + i + "@org.com"));
+      }
+      ImportSummary summary = importer(50).importCsv(new StringReader(csv.toString()),
+          new JpaCustomerBatchWriter(emf), e -> Assertions.fail(e.toString()));
+      Assertions.assertEquals(2, summary.getBatchesWritten());
+      Assertions.assertEquals(3L, (long) JpaTestSupport.inTransaction(emf, em -> em
+          .createQuery("select count(c) from CustomerInfo c", Long.class).getSingleResult()));
+      Assertions.assertEquals(120L, (long) JpaTestSupport.inTransaction(emf, em -> em
+          .createQuery("select count(c) from CustomerContact c", Long.class)
+          .getSingleResult()));
+    } finally {
+      emf.close();
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package com.researchspace.licenseserver.codec;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.researchspace.licenseserver.model.License;
+import com.researchspace.licenseserver.model.ServerInfo;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LicenseHeartbeatCodecTest {
+
+  private static final String CHARS = "abcXYZ019 -_@:/.\"\\\u00e9\u4e2d";
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final Random random = new Random(42);
+
+  private String randomString() {
+    if (random.nextInt(5) == 0) {
+      return null;
+    }
+    StringBuilder sb = new StringBuilder();
+    int length = random.nextInt(40);
+    for (int i = 0; i < length; i++) {
+      sb.append(CHARS.charAt(random.nextInt(CHARS.length())));
+    }
+    return sb.toString();
+  }
+
+  private License randomLicense() {
+    License license = new License();
+    license.setUniqueKey(randomString());
+    long activation = random.nextLong() >>> 20;
+    if (random.nextInt(10) > 0) {
+      license.setActivationDate(new Date(activation));
+    }
+    if (random.nextInt(10) > 0) {
+      license.setExpiryDate(new Date(activation + (random.nextLong() >>> 30)));
+    }
+    if (random.nextBoolean()) {
+      license.setId(random.nextLong());
+    }
+    license.setRevoked(random.nextBoolean());
+    license.setTotalUserSeats(random.nextInt(Integer.MAX_VALUE));
+    license.setTotalFreeSysadmin(random.nextInt());
+    license.setTotalFreeRSpaceadmin(random.nextInt());
+    license.setUsedSeatCount(random.nextInt());
+    if (random.nextInt(4) > 0) {
+      ServerInfo server = new ServerInfo(randomString(), randomString());
+      server.setMacId(randomString());
+      if (random.nextBoolean()) {
+        server.setId(random.nextLong());
+      }
+      license.setServerInfo(server);
+    }
+    return license;
+  }
+
+  /*
+   * The JSON form, less the properties outside the heartbeat exchange
+   */
+  private ObjectNode toJson(License license) {
+    ObjectNode json = mapper.valueToTree(license);
+    json.remove("creationDate");
+    json.remove("customerInfo");
+    if (json.get("serverInfo") instanceof ObjectNode) {
+      ((ObjectNode) json.get("serverInfo")).remove("serverInformation");
+    }
+    return json;
+  }
+
+  @Test
+  @DisplayName("random licenses survive an encode/decode round trip")
+  public void testRoundTripAgainstJson() {
+    for (int i = 0; i < 2_000; i++) {
+      License license = randomLicense();
+      String apiKey = randomString();
+      ByteBuffer encoded = LicenseHeartbeatCodec.encode(license, apiKey);
+      Assertions.assertEquals(LicenseHeartbeatCodec.encodedLength(license, apiKey),
+          encoded.remaining());
+
+      License decoded = LicenseHeartbeatCodec.decode(encoded);
+      Assertions.assertEquals(toJson(license), toJson(decoded));
+      Assertions.assertEquals(apiKey, LicenseHeartbeatCodec.apiKey(encoded));
+      Assertions.assertEquals(0, encoded.position());
+    }
+  }
+
+  @Test
+  @DisplayName("fields are read from the buffer without decoding the license")
+  public void testFieldAccess() {
+    License license = new License(new Date(1_000L), new Date(2_000L), "key", 30);
+    license.setUsedSeatCount(12);
+    license.setServerInfo(new ServerInfo("server", null));
+    ByteBuffer buffer = ByteBuffer.allocateDirect(512);
+    buffer.putInt(99);
+    LicenseHeartbeatCodec.encode(license, "secret", buffer);
+    buffer.flip();
+    buffer.position(4);
+
+    Assertions.assertEquals("key", LicenseHeartbeatCodec.uniqueKey(buffer));
+    Assertions.assertEquals("server", LicenseHeartbeatCodec.serverUniqueId(buffer));
+    Assertions.assertEquals("secret", LicenseHeartbeatCodec.apiKey(buffer));
+    Assertions.assertEquals(12, LicenseHeartbeatCodec.usedSeatCount(buffer));
+    Assertions.assertEquals(30, LicenseHeartbeatCodec.totalUserSeats(buffer));
+    Assertions.assertEquals(license.isActive(1_500L),
+        LicenseHeartbeatCodec.isActive(buffer, 1_500L));
+    Assertions.assertFalse(LicenseHeartbeatCodec.isActive(buffer, 2_000L));
+  }
+
+  @Test
+  @DisplayName("corrupt and truncated messages fail with IllegalArgumentException only")
+  public void testFuzzedInput() {
+    for (int i = 0; i < 2_000; i++) {
+      ByteBuffer encoded = LicenseHeartbeatCodec.encode(randomLicense(), randomString());
+      byte[] bytes = new byte[encoded.remaining()];
+      encoded.get(bytes);
+      int flips = 1 + random.nextInt(4);
+      for (int f = 0; f < flips; f++) {
+        // mostly corrupt the header and string lengths, where the structure is
+        int pos = random.nextInt(Math.min(bytes.length, 80));
+        bytes[pos] = (byte) random.nextInt();
+      }
+      try {
+        LicenseHeartbeatCodec.decode(ByteBuffer.wrap(bytes));
+      } catch (IllegalArgumentException expected) {
+        // fine
+      }
+    }
+
+    ByteBuffer valid = LicenseHeartbeatCodec.encode(randomLicense(), "key");
+    for (int length = 0; length < valid.remaining(); length++) {
+      ByteBuffer truncated = valid.duplicate();
+      truncated.limit(length);
+      assertThrows(IllegalArgumentException.class, () -> LicenseHeartbeatCodec.decode(truncated));
+    }
+    ByteBuffer wrongVersion = valid.duplicate();
+    wrongVersion.put(4, (byte) 2);
+    assertThrows(IllegalArgumentException.class, () -> LicenseHeartbeatCodec.decode(wrongVersion));
+  }
+
+}
@@ -0,0 +1,121 @@
+package com.researchspace.licenseserver.export;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.researchspace.licenseserver.export.LicenseExporter.Format;
+import com.researchspace.licenseserver.model.CustomerContact;
+import com.researchspace.licenseserver.model.CustomerInfo;
+import com.researchspace.licenseserver.model.License;
+import com.researchspace.licenseserver.model.ServerInfo;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LicenseExporterTest {
+
+  private static License license(int i) {
+    License license = new License(new Date(0), new Date(86_400_000L), "key" + i, 100);
+    license.setId((long) i);
+    CustomerInfo customer = new CustomerInfo("Org, \"" + i + "\"");
+    customer.addContact(new CustomerContact("Ann", "Smith", "ann@org" + i + ".com", "123"));
+    license.setCustomerInfo(customer);
+    license.setServerInfo(new ServerInfo("server" + i, "https://org" + i + ".com"));
+    return license;
+  }
+
+  private static List<String> lines(byte[] bytes, boolean gzip) throws Exception {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        gzip ? new GZIPInputStream(new ByteArrayInputStream(bytes))
+            : new ByteArrayInputStream(bytes), UTF_8))) {
+      return reader.lines().collect(Collectors.toList());
+    }
+  }
+
+  @Test
+  public void testCsv() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    License undated = new License();
+    undated.setUniqueKey("bare");
+    long rows = new LicenseExporter(Format.CSV, false).export(
+        Stream.of(license(1), undated), out);
+    Assertions.assertEquals(2, rows);
+    List<String> lines = lines(out.toByteArray(), false);
+    Assertions.assertEquals(3, lines.size());
+    Assertions.assertEquals("id,uniqueKey,creationDate,activationDate,expiryDate,revoked,"
+        + "totalUserSeats,totalFreeSysadmin,totalFreeRSpaceadmin,usedSeatCount,customerId,"
+        + "organisationName,contacts,serverUniqueId,serverUrl,serverMacId", lines.get(0));
+    // creation date is always now
+    Assertions.assertTrue(lines.get(1).startsWith("1,key1,"), lines.get(1));
+    Assertions.assertTrue(lines.get(1).endsWith(",1970-01-01T00:00:00Z,1970-01-02T00:00:00Z,"
+        + "false,100,1,0,0,,\"Org, \"\"1\"\"\",Ann Smith <ann@org1.com>,server1,"
+        + "https://org1.com,"), lines.get(1));
+    Assertions.assertTrue(lines.get(2).startsWith(",bare,"), lines.get(2));
+    Assertions.assertTrue(lines.get(2).endsWith(",,,false,0,1,0,0,,,,,,"), lines.get(2));
+  }
+
+  @Test
+  public void testCsvQuoting() throws Exception {
+    StringWriter writer = new StringWriter();
+    LicenseExporter.writeCsvField("plain", writer);
+    writer.write('|');
+    LicenseExporter.writeCsvField("a\nb", writer);
+    writer.write('|');
+    LicenseExporter.writeCsvField("say \"hi\"", writer);
+    Assertions.assertEquals("plain|\"a\nb\"|\"say \"\"hi\"\"\"", writer.toString());
+  }
+
+  @Test
+  public void testNdjson() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new LicenseExporter(Format.NDJSON, false).export(Stream.of(license(1), license(2)), out);
+    List<String> lines = lines(out.toByteArray(), false);
+    Assertions.assertEquals(2, lines.size());
+    String first = lines.get(0);
+    Assertions.assertTrue(first.startsWith("{\"id\":1,\"uniqueKey\":\"key1\",\"creationDate\":"),
+        first);
+    Assertions.assertEquals(",\"activationDate\":\"1970-01-01T00:00:00Z\","
+        + "\"expiryDate\":\"1970-01-02T00:00:00Z\","
+        + "\"revoked\":false,\"totalUserSeats\":100,\"totalFreeSysadmin\":1,"
+        + "\"totalFreeRSpaceadmin\":0,\"usedSeatCount\":0,\"customerId\":null,"
+        + "\"organisationName\":\"Org, \\\"1\\\"\",\"contacts\":[{\"firstName\":\"Ann\","
+        + "\"lastName\":\"Smith\",\"email\":\"ann@org1.com\",\"telephone\":\"123\"}],"
+        + "\"serverUniqueId\":\"server1\",\"serverUrl\":\"https://org1.com\","
+        + "\"serverMacId\":null}", first.substring(first.indexOf(",\"activationDate\"")));
+    Assertions.assertTrue(lines.get(1).startsWith("{\"id\":2,"));
+  }
+
+  @Test
+  public void testGzippedStreamOfManyRows() throws Exception {
+    int count = 100_000;
+    // generated on demand, never held in memory at once
+    Iterator<License> licenses = IntStream.range(0, count).mapToObj(
+        LicenseExporterTest::license).iterator();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    boolean[] closed = new boolean[1];
+    OutputStream out = new FilterOutputStream(bytes) {
+      @Override
+      public void close() {
+        closed[0] = true;
+      }
+    };
+    Assertions.assertEquals(count, new LicenseExporter(Format.CSV, true).export(licenses, out));
+    Assertions.assertFalse(closed[0]);
+    List<String> lines = lines(bytes.toByteArray(), true);
+    Assertions.assertEquals(count + 1, lines.size());
+    Assertions.assertTrue(lines.get(count).startsWith((count - 1) + ",key" + (count - 1)));
+    Assertions.assertTrue(bytes.size() * 5 < lines.stream().mapToInt(String::length).sum());
+  }
+}
@@ -0,0 +1,137 @@
+package com.researchspace.licenseserver.metrics;
+
+import com.researchspace.licenseserver.metrics.LicenseMetrics.Operation;
+import com.researchspace.licenseserver.metrics.LicenseMetrics.PermitOutcome;
+import com.researchspace.licenseserver.model.CustomerContact;
+import com.researchspace.licenseserver.model.License;
+import com.researchspace.licenseserver.model.SeatRole;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.validation.Validation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class InMemoryLicenseMetricsTest {
+
+  private final InMemoryLicenseMetrics metrics = new InMemoryLicenseMetrics();
+
+  private final MeteredLicenseChecker checker = new MeteredLicenseChecker(metrics);
+
+  private final License license = new License(new Date(1_000L), new Date(2_000L), "key", 10);
+
+  @Test
+  public void testPermitOutcomesPerRole() {
+    Assertions.assertEquals(7, checker.permits(license, SeatRole.USER, 3, 1_500L));
+    Assertions.assertEquals(0, checker.permits(license, SeatRole.USER, 10, 1_500L));
+    Assertions.assertEquals(-2, checker.permits(license, "ROLE_USER", 12, 1_500L));
+    Assertions.assertEquals(-1, checker.permits(license, SeatRole.ADMIN, 0, 2_500L));
+
+    LicenseMetricsSnapshot snapshot = metrics.snapshot();
+    Assertions.assertEquals(1, snapshot.getPermits(SeatRole.USER, PermitOutcome.AVAILABLE));
+    Assertions.assertEquals(2, snapshot.getPermits(SeatRole.USER, PermitOutcome.EXHAUSTED));
+    Assertions.assertEquals(1, snapshot.getPermits(SeatRole.ADMIN, PermitOutcome.INACTIVE));
+    Assertions.assertEquals(0, snapshot.getPermits(SeatRole.SYSADMIN, PermitOutcome.AVAILABLE));
+    Assertions.assertEquals(2L, snapshot.getExhaustedByLicense().get("key").longValue());
+    Assertions.assertEquals(4, snapshot.getLatency(Operation.PERMITS).getCount());
+  }
+
+  @Test
+  public void testActivityTransitions() {
+    Assertions.assertFalse(checker.isActive(license, 500L));
+    Assertions.assertTrue(checker.isActive(license, 1_500L));
+    Assertions.assertTrue(checker.isActive(license, 1_600L));
+    Assertions.assertFalse(checker.isActive(license, 2_500L));
+
+    LicenseMetricsSnapshot snapshot = metrics.snapshot();
+    Assertions.assertEquals(1, snapshot.getActivations());
+    Assertions.assertEquals(1, snapshot.getDeactivations());
+    Assertions.assertEquals(4, snapshot.getLatency(Operation.IS_ACTIVE).getCount());
+
+    // the first check after forgetting is not a transition
+    checker.forget("key");
+    checker.isActive(license, 1_500L);
+    Assertions.assertEquals(1, metrics.snapshot().getActivations());
+  }
+
+  @Test
+  public void testValidationFailuresPerField() {
+    CustomerContact contact = new CustomerContact("first", "last", "not-an-email", "123");
+    Assertions.assertFalse(checker.validate(
+        Validation.buildDefaultValidatorFactory().getValidator(), contact).isEmpty());
+    Assertions.assertEquals(1L,
+        metrics.snapshot().getValidationFailures().get("CustomerContact.email").longValue());
+  }
+
+  @Test
+  public void testHistogramBuckets() {
+    Assertions.assertEquals(0, LatencyHistogram.bucket(0));
+    Assertions.assertEquals(0, LatencyHistogram.bucket(256));
+    Assertions.assertEquals(1, LatencyHistogram.bucket(257));
+    Assertions.assertEquals(1, LatencyHistogram.bucket(512));
+    Assertions.assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+    for (int i = 0; i < LatencyHistogram.BUCKETS - 1; i++) {
+      long bound = LatencyHistogram.upperBoundNanos(i);
+      Assertions.assertEquals(i, LatencyHistogram.bucket(bound));
+      Assertions.assertEquals(i + 1, LatencyHistogram.bucket(bound + 1));
+    }
+
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 99; i++) {
+      histogram.record(100);
+    }
+    histogram.record(1_000_000);
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    Assertions.assertEquals(100, snapshot.getCount());
+    Assertions.assertEquals(256, snapshot.percentileUpperBoundNanos(50));
+    Assertions.assertEquals(256, snapshot.percentileUpperBoundNanos(99));
+    Assertions.assertEquals(1L << 20, snapshot.percentileUpperBoundNanos(100));
+    Assertions.assertEquals((99 * 100 + 1_000_000) / 100.0, snapshot.getMeanNanos());
+    Assertions.assertEquals(0, new LatencyHistogram().snapshot().percentileUpperBoundNanos(99));
+  }
+
+  @Test
+  public void testSnapshotsWhileRecording() throws Exception {
+    int threads = 4;
+    int perThread = 100_000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      futures.add(executor.submit(() -> {
+        for (int i = 0; i < perThread; i++) {
+          metrics.permitsChecked("key", SeatRole.USER, PermitOutcome.EXHAUSTED);
+          metrics.latency(Operation.PERMITS, i);
+        }
+      }));
+    }
+    long last = 0;
+    while (!futures.stream().allMatch(Future::isDone)) {
+      long current = metrics.snapshot().getPermits(SeatRole.USER, PermitOutcome.EXHAUSTED);
+      Assertions.assertTrue(current >= last);
+      last = current;
+    }
+    for (Future<?> f : futures) {
+      f.get();
+    }
+    executor.shutdown();
+    Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    LicenseMetricsSnapshot snapshot = metrics.snapshot();
+    Assertions.assertEquals((long) threads * perThread,
+        snapshot.getPermits(SeatRole.USER, PermitOutcome.EXHAUSTED));
+    Assertions.assertEquals((long) threads * perThread,
+        snapshot.getExhaustedByLicense().get("key").longValue());
+    Assertions.assertEquals((long) threads * perThread,
+        snapshot.getLatency(Operation.PERMITS).getCount());
+  }
+
+  @Test
+  public void testNoopAcceptsEverything() {
+    MeteredLicenseChecker noop = new MeteredLicenseChecker(LicenseMetrics.NOOP);
+    Assertions.assertEquals(7, noop.permits(license, SeatRole.USER, 3, 1_500L));
+    Assertions.assertTrue(noop.isActive(license, 1_500L));
+  }
+}
@@ -0,0 +1,93 @@
+package com.researchspace.licenseserver.model;
+
+import static com.researchspace.licenseserver.model.JpaTestSupport.inTransaction;
+
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class EntityCacheTest {
+
+  private static EntityManagerFactory emf;
+  private static Statistics statistics;
+  private static Long customerId;
+
+  @BeforeAll
+  public static void setup() {
+    emf = JpaTestSupport.createEntityManagerFactory(JpaTestSupport.CACHED_PERSISTENCE_UNIT,
+        "entitycache");
+    statistics = JpaTestSupport.statistics(emf);
+    License license = JpaTestSupport.licenseGraph("cached", 2);
+    JpaTestSupport.runInTransaction(emf, em -> {
+      JpaTestSupport.persist(em, license);
+      JpaTestSupport.persist(em, JpaTestSupport.licenseGraph("other", 1));
+    });
+    customerId = license.getCustomerInfo().getId();
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    emf.close();
+  }
+
+  private License licenseByKey(String uniqueKey) {
+    return inTransaction(emf, em -> em.unwrap(Session.class)
+        .bySimpleNaturalId(License.class).load(uniqueKey));
+  }
+
+  private ServerInfo serverByUniqueId(String uniqueId) {
+    return inTransaction(emf, em -> em.unwrap(Session.class)
+        .bySimpleNaturalId(ServerInfo.class).load(uniqueId));
+  }
+
+  @Test
+  public void testRepeatedLicenseLookupsByKeyIssueNoSql() {
+    Assertions.assertEquals("cached", licenseByKey("cached").getUniqueKey());
+
+    statistics.clear();
+    for (int i = 0; i < 5; i++) {
+      License license = licenseByKey("cached");
+      Assertions.assertEquals("cached", license.getUniqueKey());
+      Assertions.assertTrue(license.isActive());
+    }
+    Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+    Assertions.assertTrue(statistics.getNaturalIdCacheHitCount() >= 5);
+    Assertions.assertTrue(statistics.getSecondLevelCacheHitCount() >= 5);
+
+    Assertions.assertNull(licenseByKey("unknown"));
+  }
+
+  @Test
+  public void testRepeatedServerLookupsByUniqueIdIssueNoSql() {
+    Assertions.assertNotNull(serverByUniqueId("server-cached"));
+
+    statistics.clear();
+    for (int i = 0; i < 5; i++) {
+      Assertions.assertEquals("https://cached.org", serverByUniqueId("server-cached").getUrl());
+    }
+    Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+    Assertions.assertTrue(statistics.getNaturalIdCacheHitCount() >= 5);
+  }
+
+  @Test
+  public void testCustomerLoadedFromCache() {
+    inTransaction(emf, em -> em.find(CustomerInfo.class, customerId));
+
+    statistics.clear();
+    CustomerInfo customer = inTransaction(emf, em -> em.find(CustomerInfo.class, customerId));
+    Assertions.assertEquals("Organisation cached", customer.getOrganisationName());
+    Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+    Assertions.assertEquals(1, statistics.getSecondLevelCacheHitCount());
+  }
+
+  @Test
+  public void testUpdatesAreVisibleThroughTheCache() {
+    JpaTestSupport.runInTransaction(emf, em -> em.unwrap(Session.class)
+        .bySimpleNaturalId(License.class).load("other").setUsedSeatCount(7));
+    Assertions.assertEquals(7, licenseByKey("other").getUsedSeatCount());
+  }
+}
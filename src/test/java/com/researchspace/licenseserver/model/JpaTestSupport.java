@@ -0,0 +1,109 @@
+package com.researchspace.licenseserver.model;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Helpers for mapping tests against the in-memory H2 persistence unit in
+ * <code>META-INF/persistence.xml</code>.
+ */
+public final class JpaTestSupport {
+
+  public static final String PERSISTENCE_UNIT = "license-entities-test";
+
+  public static final String CACHED_PERSISTENCE_UNIT = "license-entities-cached-test";
+
+  private JpaTestSupport() {
+  }
+
+  /**
+   * A factory for a fresh schema in a database private to the caller.
+   */
+  public static EntityManagerFactory createEntityManagerFactory(String databaseName) {
+    return createEntityManagerFactory(PERSISTENCE_UNIT, databaseName);
+  }
+
+  public static EntityManagerFactory createEntityManagerFactory(String persistenceUnit,
+      String databaseName) {
+    return createEntityManagerFactory(persistenceUnit, databaseName, Collections.emptyMap());
+  }
+
+  /**
+   * As {@link #createEntityManagerFactory(String, String)}, with additional settings.
+   */
+  public static EntityManagerFactory createEntityManagerFactory(String persistenceUnit,
+      String databaseName, Map<String, Object> settings) {
+    Map<String, Object> properties = new HashMap<>(settings);
+    properties.put("javax.persistence.jdbc.url",
+        "jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1");
+    return Persistence.createEntityManagerFactory(persistenceUnit, properties);
+  }
+
+  public static Statistics statistics(EntityManagerFactory emf) {
+    return emf.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  public static void runInTransaction(EntityManagerFactory emf, Consumer<EntityManager> work) {
+    inTransaction(emf, em -> {
+      work.accept(em);
+      return null;
+    });
+  }
+
+  public static <T> T inTransaction(EntityManagerFactory emf, Function<EntityManager, T> work) {
+    EntityManager em = emf.createEntityManager();
+    try {
+      em.getTransaction().begin();
+      T result = work.apply(em);
+      em.getTransaction().commit();
+      return result;
+    } finally {
+      if (em.getTransaction().isActive()) {
+        em.getTransaction().rollback();
+      }
+      em.close();
+    }
+  }
+
+  /**
+   * Persists a license graph, first attaching its server information to any existing blob.
+   */
+  public static void persist(EntityManager em, License license) {
+    ServerInformationBlobs.attach(em, license);
+    em.persist(license);
+  }
+
+  /**
+   * An active license with a customer, the given number of contacts and a server, ready to be
+   * persisted.
+   */
+  public static License licenseGraph(String uniqueKey, int contacts) {
+    Calendar cal = Calendar.getInstance();
+    cal.add(Calendar.MONTH, -1);
+    License license = new License();
+    license.setActivationDate(cal.getTime());
+    cal.add(Calendar.YEAR, 1);
+    license.setExpiryDate(cal.getTime());
+    license.setUniqueKey(uniqueKey);
+    license.setTotalUserSeats(100);
+    CustomerInfo customer = new CustomerInfo("Organisation " + uniqueKey);
+    for (int i = 0; i < contacts; i++) {
+      customer.addContact(new CustomerContact("First", "Last" + i,
+          "contact" + i + "@" + uniqueKey + ".org", "+44 131 " + (1000 + i)));
+    }
+    license.setCustomerInfo(customer);
+    ServerInfo server = new ServerInfo("server-" + uniqueKey, "https://" + uniqueKey + ".org");
+    server.setServerInformation("java.version=17");
+    license.setServerInfo(server);
+    return license;
+  }
+}
@@ -0,0 +1,158 @@
+package com.researchspace.licenseserver.model;
+
+import static com.researchspace.licenseserver.model.JpaTestSupport.inTransaction;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.researchspace.licenseserver.registry.LicenseRegistry;
+import java.util.Collections;
+import java.util.Map;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnitUtil;
+import org.hibernate.Hibernate;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Counts the SQL statements issued for the common access paths, so that eager loading creeping
+ * back into the mappings shows up as a failure.
+ */
+public class LicenseFetchPlanTest {
+
+  private static EntityManagerFactory emf;
+  private static Statistics statistics;
+  private static Long licenseId;
+  private static Long customerId;
+
+  @BeforeAll
+  public static void setup() {
+    emf = JpaTestSupport.createEntityManagerFactory("fetchplan");
+    statistics = JpaTestSupport.statistics(emf);
+    License license = JpaTestSupport.licenseGraph("fetchplan", 3);
+    JpaTestSupport.runInTransaction(emf, em -> JpaTestSupport.persist(em, license));
+    licenseId = license.getId();
+    customerId = license.getCustomerInfo().getId();
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    emf.close();
+  }
+
+  @BeforeEach
+  public void clearStatistics() {
+    statistics.clear();
+  }
+
+  @Test
+  public void testFindLoadsLicenseOnly() {
+    PersistenceUnitUtil util = emf.getPersistenceUnitUtil();
+    License license = inTransaction(emf, em -> em.find(License.class, licenseId));
+    Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    Assertions.assertFalse(util.isLoaded(license, "customerInfo"));
+    Assertions.assertFalse(util.isLoaded(license, "serverInfo"));
+    Assertions.assertTrue(license.isActive());
+  }
+
+  @Test
+  public void testCheckGraphLoadsLicenseOnly() {
+    PersistenceUnitUtil util = emf.getPersistenceUnitUtil();
+    License license = inTransaction(emf, em -> em.find(License.class, licenseId,
+        graphHint(em.getEntityGraph(License.GRAPH_CHECK))));
+    Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    Assertions.assertFalse(util.isLoaded(license, "customerInfo"));
+    Assertions.assertEquals(90, license.permits(SeatRole.USER, 10));
+  }
+
+  @Test
+  public void testAdminViewGraphLoadsEverythingInOneStatement() {
+    PersistenceUnitUtil util = emf.getPersistenceUnitUtil();
+    License license = inTransaction(emf, em -> em.find(License.class, licenseId,
+        graphHint(em.getEntityGraph(License.GRAPH_ADMIN_VIEW))));
+    Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    Assertions.assertTrue(util.isLoaded(license, "customerInfo"));
+    Assertions.assertTrue(util.isLoaded(license.getCustomerInfo(), "contacts"));
+    Assertions.assertTrue(util.isLoaded(license, "serverInfo"));
+    // all usable once detached
+    Assertions.assertEquals(3, license.getCustomerInfo().getContacts().size());
+    Assertions.assertEquals("server-fetchplan", license.getServerInfo().getUniqueId());
+  }
+
+  @Test
+  public void testContactsLoadedOnDemand() {
+    int contacts = inTransaction(emf, em -> {
+      CustomerInfo customer = em.find(CustomerInfo.class, customerId);
+      Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+      return customer.getContacts().size();
+    });
+    Assertions.assertEquals(3, contacts);
+    Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+
+    statistics.clear();
+    CustomerInfo customer = inTransaction(emf, em -> em.find(CustomerInfo.class, customerId,
+        graphHint(em.getEntityGraph(CustomerInfo.GRAPH_WITH_CONTACTS))));
+    Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    Assertions.assertEquals(3, customer.getContacts().size());
+  }
+
+  @Test
+  public void testSummaryGraphLoadsCustomerAndServerInOneStatement() {
+    PersistenceUnitUtil util = emf.getPersistenceUnitUtil();
+    License license = inTransaction(emf, em -> em.find(License.class, licenseId,
+        graphHint(em.getEntityGraph(License.GRAPH_SUMMARY))));
+    Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    Assertions.assertTrue(util.isLoaded(license, "customerInfo"));
+    Assertions.assertTrue(util.isLoaded(license, "serverInfo"));
+    Assertions.assertFalse(util.isLoaded(license.getCustomerInfo(), "contacts"));
+  }
+
+  @Test
+  @DisplayName("a detached license found without a graph serializes without its associations")
+  public void testDetachedLicenseSerializes() throws Exception {
+    License license = inTransaction(emf, em -> em.find(License.class, licenseId));
+    ObjectMapper mapper = new ObjectMapper().registerModule(new LicenseJsonModule());
+    JsonNode json = mapper.readTree(mapper.writeValueAsString(license));
+    Assertions.assertEquals("fetchplan", json.get("uniqueKey").asText());
+    Assertions.assertFalse(json.has("customerInfo"));
+    Assertions.assertFalse(json.has("serverInfo"));
+    Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> new LicenseRegistry(10).put(license));
+
+    License summary = inTransaction(emf, em -> em.find(License.class, licenseId,
+        graphHint(em.getEntityGraph(License.GRAPH_SUMMARY))));
+    json = mapper.readTree(mapper.writeValueAsString(summary));
+    Assertions.assertEquals("Organisation fetchplan",
+        json.get("customerInfo").get("organisationName").asText());
+    Assertions.assertFalse(json.get("customerInfo").has("contacts"));
+    Assertions.assertEquals("server-fetchplan", json.get("serverInfo").get("uniqueId").asText());
+    Assertions.assertFalse(json.get("serverInfo").has("serverInformation"));
+    Assertions.assertNull(new LicenseRegistry(10).put(summary));
+  }
+
+  @Test
+  @DisplayName("initialized proxies serialize with the bean serializers")
+  public void testInitializedProxySerializes() throws Exception {
+    ServerInfo server = inTransaction(emf, em -> {
+      ServerInfo proxy = em.find(License.class, licenseId).getServerInfo();
+      Hibernate.initialize(proxy);
+      Hibernate.initialize(proxy.getServerInformationBlob());
+      return proxy;
+    });
+    Assertions.assertTrue(server instanceof HibernateProxy);
+    JsonNode json = new ObjectMapper().readTree(new ObjectMapper().writeValueAsString(server));
+    Assertions.assertEquals("server-fetchplan", json.get("uniqueId").asText());
+    Assertions.assertEquals("java.version=17", json.get("serverInformation").asText());
+    Assertions.assertFalse(json.has("hibernateLazyInitializer"));
+  }
+
+  private static Map<String, Object> graphHint(Object graph) {
+    return Collections.singletonMap("javax.persistence.loadgraph", graph);
+  }
+}
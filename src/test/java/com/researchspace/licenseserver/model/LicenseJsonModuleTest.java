@@ -0,0 +1,119 @@
+package com.researchspace.licenseserver.model;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Date;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LicenseJsonModuleTest {
+
+  private static ObjectMapper beanMapper;
+
+  private static ObjectMapper moduleMapper;
+
+  @BeforeAll
+  public static void before() {
+    beanMapper = new ObjectMapper();
+    moduleMapper = new ObjectMapper().registerModule(new LicenseJsonModule());
+  }
+
+  private License createLicenseGraph() {
+    License license = new License(new Date(1_000_000_000L), new Date(2_000_000_000L), "key", 30);
+    license.setId(7L);
+    license.setTotalFreeRSpaceadmin(4);
+    license.setUsedSeatCount(12);
+    CustomerInfo customer = new CustomerInfo("Some \"University\"");
+    customer.setId(3L);
+    customer.addContact(new CustomerContact("Ann", "Smith", "ann@uni.org", "0123 456"));
+    CustomerContact contact = new CustomerContact("Bob", "Jones", "bob@uni.org", "+1 (2) 3 ext4");
+    contact.setId(11L);
+    customer.addContact(contact);
+    license.setCustomerInfo(customer);
+    ServerInfo server = new ServerInfo("server-1", "https://rspace.uni.org");
+    server.setServerInformation("Linux\nJava 17\u00e9");
+    license.setServerInfo(server);
+    return license;
+  }
+
+  private void assertSameJson(Object value) throws Exception {
+    Assertions.assertEquals(beanMapper.writeValueAsString(value),
+        moduleMapper.writeValueAsString(value));
+  }
+
+  @Test
+  @DisplayName("module output is byte-identical to the bean serializers")
+  public void testSerializationIsIdentical() throws Exception {
+    License license = createLicenseGraph();
+    Assertions.assertArrayEquals(beanMapper.writeValueAsBytes(license),
+        moduleMapper.writeValueAsBytes(license));
+    assertSameJson(license.getCustomerInfo());
+    assertSameJson(license.getCustomerInfo().getContacts().iterator().next());
+    assertSameJson(license.getServerInfo());
+    assertSameJson(new License());
+    assertSameJson(new CustomerInfo("empty"));
+    assertSameJson(new ServerInfo());
+  }
+
+  @Test
+  @DisplayName("module reads bean JSON back into an equivalent graph")
+  public void testRoundTrip() throws Exception {
+    License license = createLicenseGraph();
+    String json = beanMapper.writeValueAsString(license);
+
+    License read = moduleMapper.readValue(json, License.class);
+    Assertions.assertEquals(json, moduleMapper.writeValueAsString(read));
+    Assertions.assertEquals(license.getCreationDate(), read.getCreationDate());
+    Assertions.assertTrue(read.isActive(1_500_000_000L));
+    for (CustomerContact contact : read.getCustomerInfo().getContacts()) {
+      Assertions.assertSame(read.getCustomerInfo(), contact.getCustomerInfo());
+    }
+    Assertions.assertEquals(json,
+        beanMapper.writeValueAsString(beanMapper.readValue(json, License.class)));
+  }
+
+  @Test
+  @DisplayName("module reads back its own output for licenses without customer or server")
+  public void testRoundTripWithNulls() throws Exception {
+    String empty = moduleMapper.writeValueAsString(new License());
+    Assertions.assertTrue(empty.contains("\"customerInfo\":null"), empty);
+    License read = moduleMapper.readValue(empty, License.class);
+    Assertions.assertNull(read.getCustomerInfo());
+    Assertions.assertNull(read.getServerInfo());
+    Assertions.assertNull(read.getActivationDate());
+    Assertions.assertEquals(empty, moduleMapper.writeValueAsString(read));
+
+    License license = createLicenseGraph();
+    license.setCustomerInfo(null);
+    license.setServerInfo(null);
+    String json = beanMapper.writeValueAsString(license);
+    read = moduleMapper.readValue(json, License.class);
+    Assertions.assertNull(read.getCustomerInfo());
+    Assertions.assertNull(read.getServerInfo());
+    Assertions.assertEquals(json, moduleMapper.writeValueAsString(read));
+  }
+
+  @Test
+  public void testNullContactsAreSkipped() throws Exception {
+    CustomerInfo read = moduleMapper.readValue("{\"organisationName\":\"Uni\",\"contacts\":"
+        + "[null,{\"firstName\":\"Ann\",\"email\":\"ann@uni.org\"},null]}",
+        CustomerInfo.class);
+    Assertions.assertEquals(1, read.getContacts().size());
+    Assertions.assertSame(read, read.getContacts().iterator().next().getCustomerInfo());
+  }
+
+  @Test
+  public void testInvalidInput() {
+    assertThrows(JsonMappingException.class,
+        () -> moduleMapper.readValue("{\"uniqueKey\":\"k\",\"unknown\":1}", License.class));
+    assertThrows(JsonMappingException.class,
+        () -> moduleMapper.readValue("{\"totalUserSeats\":-1}", License.class));
+    assertThrows(JsonMappingException.class,
+        () -> moduleMapper.readValue("[1]", ServerInfo.class));
+  }
+
+}
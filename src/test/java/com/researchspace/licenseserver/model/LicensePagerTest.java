@@ -0,0 +1,176 @@
+package com.researchspace.licenseserver.model;
+
+import static com.researchspace.licenseserver.model.JpaTestSupport.inTransaction;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class LicensePagerTest {
+
+  private static final int LICENSES = 5000;
+
+  private static final long NOW = System.currentTimeMillis();
+
+  private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+  private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+  private static EntityManagerFactory emf;
+
+  private static Long customerId;
+
+  @BeforeAll
+  public static void setup() {
+    emf = JpaTestSupport.createEntityManagerFactory("licensepager");
+    customerId = inTransaction(emf, em -> {
+      License withCustomer = JpaTestSupport.licenseGraph("customer-license", 1);
+      JpaTestSupport.persist(em, withCustomer);
+      for (int i = 1; i < LICENSES; i++) {
+        // creation dates out of id order, three licenses per second
+        int position = (i * 7919) % LICENSES;
+        License license = new License(new Date(NOW - 400 * DAY),
+            new Date(NOW + (i % 100) * DAY), "key" + i, 10);
+        license.setCreationDate(new Date(NOW - 10 * DAY + position / 3 * 1000L));
+        license.setRevoked(i % 10 == 0);
+        em.persist(license);
+        if (i % 500 == 0) {
+          em.flush();
+          em.clear();
+        }
+      }
+      return withCustomer.getCustomerInfo().getId();
+    });
+    JpaTestSupport.runInTransaction(emf, em -> em.createNativeQuery("ANALYZE").executeUpdate());
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    emf.close();
+  }
+
+  private static List<Long> allPages(LicenseListing listing, Map<String, ?> parameters,
+      int pageSize) {
+    return inTransaction(emf, em -> {
+      LicensePager pager = new LicensePager(em, pageSize);
+      List<Long> ids = new ArrayList<>();
+      LicensePage page = pager.firstPage(listing, parameters);
+      while (true) {
+        Assertions.assertTrue(page.getLicenses().size() <= pageSize);
+        page.getLicenses().forEach(l -> ids.add(l.getId()));
+        if (!page.hasNext()) {
+          return ids;
+        }
+        Assertions.assertEquals(pageSize, page.getLicenses().size());
+        page = pager.nextPage(listing, parameters, page.getNext());
+        em.clear();
+      }
+    });
+  }
+
+  private static List<Long> namedQuery(String name, Map<String, ?> parameters) {
+    return inTransaction(emf, em -> {
+      TypedQuery<License> query = em.createNamedQuery(name, License.class);
+      parameters.forEach(query::setParameter);
+      return query.getResultList().stream().map(License::getId).collect(Collectors.toList());
+    });
+  }
+
+  @Test
+  public void testPagesCoverListingInKeyOrder() {
+    List<Long> ids = allPages(LicenseListing.ALL, new HashMap<>(), 97);
+    Assertions.assertEquals(LICENSES, ids.size());
+    Assertions.assertEquals(LICENSES, new HashSet<>(ids).size());
+    List<Long> expected = inTransaction(emf, em -> em.createQuery(
+        "select l.id from License l order by l.creationDate, l.id", Long.class)
+        .getResultList());
+    Assertions.assertEquals(expected, ids);
+  }
+
+  @Test
+  public void testListingsMatchNamedQueries() {
+    Map<String, Object> now = new HashMap<>();
+    now.put(License.PARAM_NOW, new Date(NOW));
+    List<Long> active = allPages(LicenseListing.ACTIVE, now, 100);
+    Assertions.assertEquals(namedQuery(License.QUERY_ACTIVE, now), active);
+    Function<Long, License> find = id -> inTransaction(emf, em -> em.find(License.class, id));
+    active.stream().limit(50).map(find).forEach(l -> Assertions.assertTrue(l.isActive()));
+
+    Map<String, Object> expiring = new HashMap<>(now);
+    expiring.put(License.PARAM_UNTIL, new Date(NOW + 30 * DAY));
+    List<Long> expiringIds = allPages(LicenseListing.EXPIRING, expiring, 100);
+    Assertions.assertEquals(namedQuery(License.QUERY_EXPIRING, expiring), expiringIds);
+    // expiry in 1..30 days, of which every tenth is revoked, in each block of 100 licenses
+    Assertions.assertEquals(LICENSES / 100 * 27, expiringIds.size());
+
+    List<Long> revoked = allPages(LicenseListing.REVOKED, new HashMap<>(), 100);
+    Assertions.assertEquals(namedQuery(License.QUERY_REVOKED, new HashMap<>()), revoked);
+    Assertions.assertEquals(LICENSES / 10 - 1, revoked.size());
+
+    Map<String, Object> customer = new HashMap<>();
+    customer.put(License.PARAM_CUSTOMER_ID, customerId);
+    List<Long> byCustomer = allPages(LicenseListing.BY_CUSTOMER, customer, 100);
+    Assertions.assertEquals(1, byCustomer.size());
+    Assertions.assertEquals(namedQuery(License.QUERY_BY_CUSTOMER, customer), byCustomer);
+    Assertions.assertEquals(1, inTransaction(emf, em -> em.createNamedQuery(
+            CustomerInfo.QUERY_BY_ORGANISATION_NAME, CustomerInfo.class)
+        .setParameter(CustomerInfo.PARAM_ORGANISATION_NAME, "Organisation customer-license")
+        .getResultList()).size());
+  }
+
+  private static long rowsScanned(String sql) {
+    String plan = inTransaction(emf, em -> em.createNativeQuery("EXPLAIN ANALYZE " + sql)
+        .getSingleResult()).toString();
+    Matcher m = SCAN_COUNT.matcher(plan);
+    long rows = 0;
+    boolean found = false;
+    while (m.find()) {
+      rows += Long.parseLong(m.group(1));
+      found = true;
+    }
+    Assertions.assertTrue(found, plan);
+    return rows;
+  }
+
+  private static LicenseKeyset keyAt(int position) {
+    return inTransaction(emf, em -> LicenseKeyset.of(em.createQuery(
+            "select l from License l order by l.creationDate, l.id", License.class)
+        .setFirstResult(position).setMaxResults(1).getSingleResult()));
+  }
+
+  private static String keysetPage(LicenseKeyset after, int pageSize) {
+    String date = "TIMESTAMP '" + new Timestamp(after.getCreationDate().getTime()) + "'";
+    return "SELECT * FROM License WHERE creationDate >= " + date + " AND (creationDate > "
+        + date + " OR id > " + after.getId() + ") ORDER BY creationDate, id FETCH FIRST "
+        + pageSize + " ROWS ONLY";
+  }
+
+  @Test
+  public void testDeepPagesCostTheSameAsShallowOnes() {
+    int pageSize = 50;
+    long shallow = rowsScanned(keysetPage(keyAt(100), pageSize));
+    long deep = rowsScanned(keysetPage(keyAt(LICENSES - 200), pageSize));
+    // ties on the key's creation date may be read and skipped
+    Assertions.assertTrue(shallow <= pageSize + 5, "shallow page read " + shallow);
+    Assertions.assertTrue(deep <= pageSize + 5, "deep page read " + deep);
+
+    long offset = rowsScanned("SELECT * FROM License ORDER BY creationDate, id OFFSET "
+        + (LICENSES - 200) + " ROWS FETCH NEXT " + pageSize + " ROWS ONLY");
+    Assertions.assertTrue(offset >= LICENSES - 200, "offset page read " + offset);
+  }
+}
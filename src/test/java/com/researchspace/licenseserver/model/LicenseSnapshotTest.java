@@ -0,0 +1,55 @@
+package com.researchspace.licenseserver.model;
+
+import java.util.Date;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LicenseSnapshotTest {
+
+  private static final long NOW = 1_500_000L;
+
+  @Test
+  public void testSnapshotAgreesWithLicense() {
+    License license = new License(new Date(1_000_000L), new Date(2_000_000L), "key", 30);
+    license.setTotalFreeRSpaceadmin(5);
+    license.setTotalFreeSysadmin(3);
+    LicenseSnapshot snapshot = LicenseSnapshot.of(license);
+
+    Assertions.assertEquals("key", snapshot.getUniqueKey());
+    Assertions.assertTrue(snapshot.isActive(NOW));
+    for (String role : new String[]{"ROLE_USER", "ROLE_ADMIN", "ROLE_SYSADMIN", "ROLE_OTHER"}) {
+      Assertions.assertEquals(license.permits(role, 2, NOW), snapshot.permits(role, 2, NOW));
+    }
+    Assertions.assertEquals(-1, snapshot.permits("ROLE_USER", 2, 2_000_000L));
+  }
+
+  @Test
+  public void testSnapshotIsUnaffectedByLaterUpdates() {
+    License license = new License(new Date(1_000_000L), new Date(2_000_000L), "key", 30);
+    LicenseSnapshot snapshot = LicenseSnapshot.of(license);
+    license.setRevoked(true);
+    license.setTotalUserSeats(10);
+
+    Assertions.assertTrue(snapshot.isActive(NOW));
+    Assertions.assertEquals(28, snapshot.permits("ROLE_USER", 2, NOW));
+    Assertions.assertFalse(LicenseSnapshot.of(license).isActive(NOW));
+  }
+
+  @Test
+  public void testPermitsAtCurrentTimeAgreeWithLicense() {
+    long now = System.currentTimeMillis();
+    License license = new License(new Date(now - 60_000L), new Date(now + 3_600_000L), "key", 30);
+    license.setTotalFreeRSpaceadmin(5);
+    license.setTotalFreeSysadmin(3);
+    LicenseSnapshot snapshot = LicenseSnapshot.of(license);
+
+    for (SeatRole role : SeatRole.values()) {
+      Assertions.assertEquals(license.permits(role, 2), snapshot.permits(role, 2));
+    }
+    Assertions.assertEquals(license.permits("ROLE_ADMIN", 1), snapshot.permits("ROLE_ADMIN", 1));
+    int[] used = {2, 1, 0};
+    Assertions.assertArrayEquals(license.permitsAll(used), snapshot.permitsAll(used));
+    Assertions.assertArrayEquals(new int[]{28, 4, 3}, snapshot.permitsAll(used));
+  }
+
+}
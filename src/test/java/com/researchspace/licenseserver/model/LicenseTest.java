@@ -2,6 +2,10 @@ package com.researchspace.licenseserver.model;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.text.SimpleDateFormat;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Set;
@@ -51,6 +55,69 @@ public class LicenseTest {
 
   }
 
+  @Test
+  public void testIsActiveAtFixedTime() {
+    long activation = 1_000_000L;
+    long expiry = 2_000_000L;
+    license = new License(new Date(activation), new Date(expiry), "any", 10);
+    Assertions.assertFalse(license.isActive(activation));
+    Assertions.assertTrue(license.isActive(activation + 1));
+    Assertions.assertTrue(license.isActive(expiry - 1));
+    Assertions.assertFalse(license.isActive(expiry));
+    Assertions.assertTrue(
+        license.isActive(Clock.fixed(Instant.ofEpochMilli(1_500_000L), ZoneOffset.UTC)));
+    Assertions.assertEquals(7, license.permits("ROLE_USER", 3, 1_500_000L));
+    Assertions.assertEquals(-1, license.permits("ROLE_USER", 3, expiry + 1));
+
+    license.setExpiryDate(new Date(3_000_000L));
+    Assertions.assertTrue(license.isActive(2_500_000L));
+    license.setActivationDate(new Date(2_600_000L));
+    Assertions.assertFalse(license.isActive(2_500_000L));
+
+    // a license without dates is never active
+    Assertions.assertFalse(new License().isActive(1_500_000L));
+  }
+
+  @Test
+  public void testDatesAreCopied() {
+    Date activation = new Date(1_000_000L);
+    Date expiry = new Date(2_000_000L);
+    license = new License();
+    license.setActivationDate(activation);
+    license.setExpiryDate(expiry);
+    activation.setTime(1_800_000L);
+    expiry.setTime(1_200_000L);
+    license.getActivationDate().setTime(1_900_000L);
+    license.getExpiryDate().setTime(1_100_000L);
+
+    Assertions.assertEquals(new Date(1_000_000L), license.getActivationDate());
+    Assertions.assertEquals(new Date(2_000_000L), license.getExpiryDate());
+    Assertions.assertTrue(license.isActive(1_500_000L));
+  }
+
+  @Test
+  public void testFormattedDates() {
+    license = new License();
+    Assertions.assertNull(license.getExpiryDateFormatted());
+    Calendar cal = Calendar.getInstance();
+    cal.set(2020, Calendar.MARCH, 5);
+    license.setActivationDate(cal.getTime());
+    cal.set(2021, Calendar.DECEMBER, 31);
+    license.setExpiryDate(cal.getTime());
+    Assertions.assertEquals("05-03-2020", license.getActivationDateFormatted());
+    Assertions.assertEquals("31-12-2021", license.getExpiryDateFormatted());
+    Assertions.assertEquals(new SimpleDateFormat(License.DATE_FORMAT).format(cal.getTime()),
+        license.getExpiryDateFormatted());
+
+    // setters invalidate the cached values
+    cal.set(2022, Calendar.JANUARY, 1);
+    license.setExpiryDate(cal.getTime());
+    Assertions.assertEquals("01-01-2022", license.getExpiryDateFormatted());
+    cal.set(2019, Calendar.JULY, 14);
+    license.setActivationDate(cal.getTime());
+    Assertions.assertEquals("14-07-2019", license.getActivationDateFormatted());
+  }
+
   @Test
   public void testSetup() {
     license = new License();
@@ -85,6 +152,34 @@ public class LicenseTest {
 
   }
 
+  @Test
+  public void testPermitsAll() {
+    License license = new License();
+    license.setTotalFreeRSpaceadmin(5);
+    license.setTotalFreeSysadmin(3);
+    license.setTotalUserSeats(30);
+    setUpDates(license);
+    int[] enabled = new int[SeatRole.COUNT];
+    enabled[SeatRole.USER.ordinal()] = 10;
+    enabled[SeatRole.ADMIN.ordinal()] = 2;
+    enabled[SeatRole.SYSADMIN.ordinal()] = 2;
+    Assertions.assertArrayEquals(new int[]{20, 3, 1}, license.permitsAll(enabled));
+    Assertions.assertEquals(SeatRole.USER, SeatRole.fromRoleName("ROLE_PI"));
+
+    // active strictly between activation and expiry
+    long activation = license.getActivationDate().getTime();
+    long expiry = license.getExpiryDate().getTime();
+    Assertions.assertArrayEquals(new int[]{20, 3, 1}, license.permitsAll(enabled, expiry - 1));
+    Assertions.assertArrayEquals(new int[]{-1, -1, -1}, license.permitsAll(enabled, expiry));
+    Assertions.assertArrayEquals(new int[]{-1, -1, -1}, license.permitsAll(enabled, activation));
+    Assertions.assertArrayEquals(new int[]{20, 3, 1},
+        license.permitsAll(enabled, activation + 1));
+
+    license.setRevoked(true);
+    Assertions.assertArrayEquals(new int[]{-1, -1, -1}, license.permitsAll(enabled));
+    assertThrows(IllegalArgumentException.class, () -> license.permitsAll(new int[1]));
+  }
+
   private void setUpDates(License license2) {
     Calendar cal = Calendar.getInstance();
     cal.add(Calendar.YEAR, -1);
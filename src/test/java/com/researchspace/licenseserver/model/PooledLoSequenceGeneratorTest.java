@@ -0,0 +1,76 @@
+package com.researchspace.licenseserver.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PooledLoSequenceGeneratorTest {
+
+  private static long nextValue(EntityManagerFactory emf, String sequence) {
+    return JpaTestSupport.inTransaction(emf, em -> ((Number) em
+        .createNativeQuery("SELECT NEXT VALUE FOR " + sequence).getSingleResult()).longValue());
+  }
+
+  private static List<Long> insertCustomers(EntityManagerFactory emf, int count) {
+    return JpaTestSupport.inTransaction(emf, em -> {
+      List<CustomerInfo> customers = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        CustomerInfo customer = new CustomerInfo("Organisation " + i);
+        em.persist(customer);
+        customers.add(customer);
+      }
+      return customers.stream().map(CustomerInfo::getId).collect(Collectors.toList());
+    });
+  }
+
+  @Test
+  public void testIdsAreAllocatedInBlocks() {
+    EntityManagerFactory emf = JpaTestSupport.createEntityManagerFactory("pooledlo");
+    try {
+      List<Long> ids = insertCustomers(emf, 120);
+      for (int i = 0; i < ids.size(); i++) {
+        Assertions.assertEquals(i + 1, ids.get(i).longValue());
+      }
+      // 3 sequence calls, each reserving a block of the default 50 ids
+      Assertions.assertEquals(151, nextValue(emf, "customerInfo_seq"));
+    } finally {
+      emf.close();
+    }
+  }
+
+  @Test
+  public void testAllocationSizeIsConfigurable() {
+    EntityManagerFactory emf = JpaTestSupport.createEntityManagerFactory(
+        JpaTestSupport.PERSISTENCE_UNIT, "pooledlosize", Collections.singletonMap(
+            PooledLoSequenceGenerator.ALLOCATION_SIZE_SETTING + ".customerInfo_seq", "1"));
+    try {
+      insertCustomers(emf, 3);
+      Assertions.assertEquals(4, nextValue(emf, "customerInfo_seq"));
+    } finally {
+      emf.close();
+    }
+  }
+
+  @Test
+  public void testAllocationSizePrecedence() {
+    Properties params = new Properties();
+    Map<String, Object> settings = new HashMap<>();
+    Assertions.assertEquals(PooledLoSequenceGenerator.DEFAULT_ALLOCATION_SIZE,
+        PooledLoSequenceGenerator.allocationSize("seq", params, settings));
+    params.setProperty(PooledLoSequenceGenerator.INCREMENT_PARAM, "20");
+    Assertions.assertEquals(20, PooledLoSequenceGenerator.allocationSize("seq", params, settings));
+    settings.put(PooledLoSequenceGenerator.ALLOCATION_SIZE_SETTING, 100);
+    Assertions.assertEquals(100, PooledLoSequenceGenerator.allocationSize("seq", params, settings));
+    settings.put(PooledLoSequenceGenerator.ALLOCATION_SIZE_SETTING + ".seq", "5");
+    Assertions.assertEquals(5, PooledLoSequenceGenerator.allocationSize("seq", params, settings));
+    Assertions.assertEquals(100,
+        PooledLoSequenceGenerator.allocationSize("other", params, settings));
+  }
+}
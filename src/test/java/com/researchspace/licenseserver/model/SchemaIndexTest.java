@@ -0,0 +1,65 @@
+package com.researchspace.licenseserver.model;
+
+import static com.researchspace.licenseserver.model.JpaTestSupport.inTransaction;
+
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that H2 plans the standard reporting queries against the generated schema with the
+ * declared indexes rather than table scans.
+ */
+public class SchemaIndexTest {
+
+  private static EntityManagerFactory emf;
+
+  @BeforeAll
+  public static void setup() {
+    emf = JpaTestSupport.createEntityManagerFactory("schemaindex");
+    JpaTestSupport.runInTransaction(emf, em -> {
+      for (int i = 0; i < 100; i++) {
+        License license = JpaTestSupport.licenseGraph("key" + i, 2);
+        license.setRevoked(i % 10 == 0);
+        JpaTestSupport.persist(em, license);
+      }
+    });
+    JpaTestSupport.runInTransaction(emf, em -> em.createNativeQuery("ANALYZE").executeUpdate());
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    emf.close();
+  }
+
+  private String plan(String sql) {
+    return inTransaction(emf, em -> em.createNativeQuery("EXPLAIN " + sql).getSingleResult())
+        .toString().toUpperCase();
+  }
+
+  private void assertUsesIndex(String index, String sql) {
+    String plan = plan(sql);
+    Assertions.assertTrue(plan.contains(index.toUpperCase()), plan);
+    Assertions.assertFalse(plan.contains("TABLESCAN"), plan);
+  }
+
+  @Test
+  public void testExpiringSoonUsesExpiryDateIndex() {
+    assertUsesIndex("idx_license_expiryDate", "SELECT * FROM License WHERE expiryDate "
+        + "BETWEEN TIMESTAMP '2026-01-01 00:00:00' AND TIMESTAMP '2026-02-01 00:00:00'");
+  }
+
+  @Test
+  public void testRevokedUsesRevokedIndex() {
+    assertUsesIndex("idx_license_revoked_expiryDate",
+        "SELECT * FROM License WHERE revoked = TRUE");
+  }
+
+  @Test
+  public void testContactsByEmailUseEmailIndex() {
+    assertUsesIndex("idx_contact_email",
+        "SELECT * FROM CustomerContact WHERE email = 'contact1@key7.org'");
+  }
+}
@@ -0,0 +1,153 @@
+package com.researchspace.licenseserver.model;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SeatReservationsTest {
+
+  private static final long NOW = 1_500_000L;
+
+  private static final int THREADS = 8;
+
+  private License createLicense() {
+    License license = new License(new Date(1_000_000L), new Date(2_000_000L), "key", 100);
+    license.setTotalFreeRSpaceadmin(5);
+    license.setTotalFreeSysadmin(2);
+    return license;
+  }
+
+  @Test
+  public void testReserveAndRelease() {
+    SeatReservations seats = new SeatReservations(LicenseSnapshot.of(createLicense()));
+    Assertions.assertTrue(seats.tryReserve("ROLE_SYSADMIN", 2, NOW));
+    Assertions.assertFalse(seats.tryReserve("ROLE_SYSADMIN", 1, NOW));
+    Assertions.assertTrue(seats.tryReserve("ROLE_ADMIN", 5, NOW));
+    Assertions.assertTrue(seats.tryReserve("ROLE_USER", 100, NOW));
+    Assertions.assertFalse(seats.tryReserve("ROLE_USER", 1, NOW));
+
+    seats.release("ROLE_USER", 1);
+    Assertions.assertEquals(99, seats.reserved("ROLE_USER"));
+    Assertions.assertTrue(seats.tryReserve("ROLE_USER", 1, NOW));
+    assertThrows(IllegalStateException.class, () -> seats.release("ROLE_SYSADMIN", 3));
+    assertThrows(IllegalArgumentException.class, () -> seats.tryReserve("ROLE_USER", 0, NOW));
+  }
+
+  @Test
+  public void testSeatRoleOverloads() {
+    long now = System.currentTimeMillis();
+    License license = new License(new Date(now - 60_000L), new Date(now + 3_600_000L), "key", 10);
+    license.setTotalFreeRSpaceadmin(5);
+    SeatReservations seats = new SeatReservations(LicenseSnapshot.of(license));
+    seats.setReserved(SeatRole.ADMIN, 4);
+    Assertions.assertEquals(4, seats.reserved("ROLE_ADMIN"));
+    Assertions.assertTrue(seats.tryReserve(SeatRole.ADMIN, 1));
+    Assertions.assertFalse(seats.tryReserve(SeatRole.ADMIN, 1));
+    Assertions.assertEquals(0, seats.reserved(SeatRole.USER));
+    assertThrows(IllegalArgumentException.class, () -> seats.setReserved(SeatRole.USER, -1));
+  }
+
+  @Test
+  public void testNoReservationsWhenInactive() {
+    License license = createLicense();
+    SeatReservations seats = new SeatReservations(LicenseSnapshot.of(license));
+    Assertions.assertFalse(seats.tryReserve("ROLE_USER", 1, 2_000_000L));
+    license.setRevoked(true);
+    seats.updateLimits(LicenseSnapshot.of(license));
+    Assertions.assertFalse(seats.tryReserve("ROLE_USER", 1, NOW));
+    Assertions.assertEquals(0, seats.reserved("ROLE_USER"));
+  }
+
+  @Test
+  public void testConcurrentReservationsNeverExceedLimits() throws Exception {
+    SeatReservations seats = new SeatReservations(LicenseSnapshot.of(createLicense()));
+    String[] roles = {"ROLE_USER", "ROLE_ADMIN", "ROLE_SYSADMIN"};
+    int[] limits = {100, 5, 2};
+    AtomicBoolean limitExceeded = new AtomicBoolean();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<int[]>> results = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        Callable<int[]> task = () -> {
+          int[] held = new int[roles.length];
+          start.await();
+          for (int i = 0; i < 20_000; i++) {
+            int r = i % roles.length;
+            if (seats.tryReserve(roles[r], 1, NOW)) {
+              held[r]++;
+              if (seats.reserved(roles[r]) > limits[r]) {
+                limitExceeded.set(true);
+              }
+            }
+            // give back some seats so that the counters keep moving around the limits
+            if (held[r] > 0 && i % 3 == 0) {
+              seats.release(roles[r], 1);
+              held[r]--;
+            }
+          }
+          return held;
+        };
+        results.add(executor.submit(task));
+      }
+      start.countDown();
+      int[] totalHeld = new int[roles.length];
+      for (Future<int[]> result : results) {
+        int[] held = result.get(1, TimeUnit.MINUTES);
+        for (int r = 0; r < roles.length; r++) {
+          totalHeld[r] += held[r];
+        }
+      }
+      Assertions.assertFalse(limitExceeded.get());
+      for (int r = 0; r < roles.length; r++) {
+        Assertions.assertEquals(totalHeld[r], seats.reserved(roles[r]));
+        Assertions.assertTrue(totalHeld[r] <= limits[r]);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testConcurrentReservationsFillLimitExactly() throws Exception {
+    SeatReservations seats = new SeatReservations(LicenseSnapshot.of(createLicense()));
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          int granted = 0;
+          for (int i = 0; i < 1_000; i++) {
+            if (seats.tryReserve("ROLE_USER", 1, NOW)) {
+              granted++;
+            }
+          }
+          return granted;
+        }));
+      }
+      start.countDown();
+      int granted = 0;
+      for (Future<Integer> result : results) {
+        granted += result.get(1, TimeUnit.MINUTES);
+      }
+      Assertions.assertEquals(100, granted);
+      Assertions.assertEquals(100, seats.reserved("ROLE_USER"));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
@@ -0,0 +1,72 @@
+package com.researchspace.licenseserver.model;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.Reader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ServerInfoTest {
+
+  private String environmentDump(int lines) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < lines; i++) {
+      sb.append("property.").append(i).append("=/opt/rspace/lib/value-").append(i % 17)
+          .append(" é\n");
+    }
+    return sb.toString();
+  }
+
+  @Test
+  public void testServerInformationIsStoredCompressed() throws Exception {
+    ServerInfo server = new ServerInfo("id", "https://rspace.org");
+    Assertions.assertNull(server.getServerInformation());
+    Assertions.assertNull(server.getServerInformationHash());
+    try (Reader reader = server.openServerInformationReader()) {
+      Assertions.assertEquals(-1, reader.read());
+    }
+
+    String dump = environmentDump(5_000);
+    server.setServerInformation(dump);
+    Assertions.assertEquals(dump, server.getServerInformation());
+    CompressedText stored = server.getServerInformationBlob().getContent();
+    Assertions.assertTrue(stored.compressedLength() * 5 < dump.length());
+
+    try (BufferedReader reader = new BufferedReader(server.openServerInformationReader())) {
+      Assertions.assertEquals("property.0=/opt/rspace/lib/value-0 é", reader.readLine());
+    }
+    try (InputStream in = server.openServerInformationStream()) {
+      Assertions.assertEquals('p', in.read());
+    }
+
+    CompressedTextConverter converter = new CompressedTextConverter();
+    CompressedText restored = converter.convertToEntityAttribute(
+        converter.convertToDatabaseColumn(stored));
+    Assertions.assertEquals(stored, restored);
+    Assertions.assertEquals(dump, restored.asString());
+
+    server.setServerInformation(null);
+    Assertions.assertNull(server.getServerInformationBlob());
+  }
+
+  @Test
+  public void testIdenticalServerInformationIsDeduplicated() {
+    String dump = environmentDump(100);
+    ServerInfo server = new ServerInfo("id1", null);
+    ServerInfo other = new ServerInfo("id2", null);
+    Assertions.assertTrue(server.updateServerInformation(dump));
+    Assertions.assertTrue(other.updateServerInformation(dump));
+    Assertions.assertEquals(server.getServerInformationBlob(), other.getServerInformationBlob());
+    Assertions.assertEquals(ServerInformationBlob.HASH_LENGTH,
+        server.getServerInformationHash().length());
+
+    ServerInformationBlob before = server.getServerInformationBlob();
+    Assertions.assertFalse(server.updateServerInformation(environmentDump(100)));
+    Assertions.assertSame(before, server.getServerInformationBlob());
+    Assertions.assertTrue(server.updateServerInformation(dump + "changed"));
+    Assertions.assertNotEquals(before, server.getServerInformationBlob());
+    Assertions.assertTrue(server.updateServerInformation(null));
+    Assertions.assertFalse(server.updateServerInformation(null));
+  }
+
+}
@@ -0,0 +1,74 @@
+package com.researchspace.licenseserver.model;
+
+import static com.researchspace.licenseserver.model.JpaTestSupport.inTransaction;
+
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ServerInformationBlobsTest {
+
+  private EntityManagerFactory emf;
+
+  @BeforeEach
+  public void setup() {
+    emf = JpaTestSupport.createEntityManagerFactory("serverinformationblobs");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    emf.close();
+  }
+
+  private long blobRows() {
+    return inTransaction(emf, em -> em.createQuery(
+        "select count(b) from ServerInformationBlob b", Long.class).getSingleResult());
+  }
+
+  private void persistServer(String uniqueId, String information) {
+    ServerInfo server = new ServerInfo(uniqueId, "https://" + uniqueId + ".org");
+    server.setServerInformation(information);
+    JpaTestSupport.runInTransaction(emf, em -> {
+      ServerInformationBlobs.attach(em, server);
+      em.persist(server);
+    });
+  }
+
+  @Test
+  public void testIdenticalInformationIsStoredOnce() {
+    persistServer("first", "java.version=17");
+    persistServer("second", "java.version=17");
+    Assertions.assertEquals(1, blobRows());
+
+    // and within one transaction
+    JpaTestSupport.runInTransaction(emf, em -> {
+      for (String id : new String[]{"third", "fourth"}) {
+        ServerInfo server = new ServerInfo(id, null);
+        server.setServerInformation("java.version=21");
+        ServerInformationBlobs.attach(em, server);
+        em.persist(server);
+      }
+    });
+    Assertions.assertEquals(2, blobRows());
+    Assertions.assertEquals("java.version=17", inTransaction(emf, em -> em.createQuery(
+            "select s from ServerInfo s where s.uniqueId = 'second'", ServerInfo.class)
+        .getSingleResult().getServerInformation()));
+  }
+
+  @Test
+  public void testOrphansAreDeleted() {
+    persistServer("server", "old");
+    JpaTestSupport.runInTransaction(emf, em -> {
+      ServerInfo server = em.createQuery("select s from ServerInfo s", ServerInfo.class)
+          .getSingleResult();
+      server.setServerInformation("new");
+      ServerInformationBlobs.attach(em, server);
+    });
+    Assertions.assertEquals(2, blobRows());
+    Assertions.assertEquals(1, (int) inTransaction(emf, ServerInformationBlobs::deleteOrphans));
+    Assertions.assertEquals(1, blobRows());
+    Assertions.assertEquals(0, (int) inTransaction(emf, ServerInformationBlobs::deleteOrphans));
+  }
+}
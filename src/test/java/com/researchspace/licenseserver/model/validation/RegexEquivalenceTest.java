@@ -0,0 +1,69 @@
+package com.researchspace.licenseserver.model.validation;
+
+import com.researchspace.licenseserver.model.CustomerContact;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the hand-written validators against the regexes they replace.
+ */
+public class RegexEquivalenceTest {
+
+  private static final Pattern AT_LEAST_ONE_CHAR = Pattern.compile(
+      CustomerContact.AT_LEAST_ONE_CHAR);
+
+  private static final Pattern TELEPHONE = Pattern.compile("^[ext\\d\\-\\s+\\(\\)]+$");
+
+  // letters, digits and the allowed symbols, plus look-alikes: line terminators, whitespace
+  // outside \s, non-ASCII letters and digits, and surrogates
+  private static final String ALPHABET = "aZextEX09-+() \t\n\u000B\f\r\u0085\u2028\u2029"
+      + "\u00a0\u3000\u00e9\u0661#.@_/\ud83d\ude00";
+
+  private static final String[] EDGE_CASES = {"", " ", "a", "1", "\n", "a\n", "\na", "a\r\n",
+      "\r\na", "1a", "a1", "\u00e9", "ext", "e x t", "+44 (131) 456-7890 ext111", "+1zzz",
+      "\u0661\u0662", "123\u00a0456", "\t\n\u000B\f\r", "(", "a@b.com", "123@4456",
+      "234-&5", "\u2028a", "a\u0085"};
+
+  private static void assertSameAsRegex(String value) {
+    Assertions.assertEquals(AT_LEAST_ONE_CHAR.matcher(value).matches(),
+        ContainsLetterValidator.isValid(value), () -> "ContainsLetter: " + escape(value));
+    Assertions.assertEquals(TELEPHONE.matcher(value).matches(),
+        TelephoneNumberValidator.isValid(value), () -> "TelephoneNumber: " + escape(value));
+  }
+
+  private static String escape(String value) {
+    StringBuilder sb = new StringBuilder("\"");
+    value.chars().forEach(c -> sb.append(c < 0x20 || c > 0x7e
+        ? String.format("\\u%04x", c) : String.valueOf((char) c)));
+    return sb.append('"').toString();
+  }
+
+  @Test
+  public void testEdgeCases() {
+    for (String value : EDGE_CASES) {
+      assertSameAsRegex(value);
+    }
+  }
+
+  @Test
+  public void testRandomInputs() {
+    Random random = new Random(42);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 200_000; i++) {
+      sb.setLength(0);
+      int length = random.nextInt(12);
+      for (int j = 0; j < length; j++) {
+        sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+      }
+      assertSameAsRegex(sb.toString());
+    }
+  }
+
+  @Test
+  public void testNullIsValid() {
+    Assertions.assertTrue(new ContainsLetterValidator().isValid(null, null));
+    Assertions.assertTrue(new TelephoneNumberValidator().isValid(null, null));
+  }
+}
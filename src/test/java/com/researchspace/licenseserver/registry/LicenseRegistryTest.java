@@ -0,0 +1,110 @@
+package com.researchspace.licenseserver.registry;
+
+import com.researchspace.licenseserver.model.License;
+import com.researchspace.licenseserver.model.ServerInfo;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LicenseRegistryTest {
+
+  private static final Clock CLOCK = Clock.fixed(Instant.ofEpochMilli(1_500_000L), ZoneOffset.UTC);
+
+  private License createLicense(String key, String serverId, long expiry) {
+    License license = new License(new Date(1_000_000L), new Date(expiry), key, 10);
+    if (serverId != null) {
+      license.setServerInfo(new ServerInfo(serverId, "https://" + serverId));
+    }
+    return license;
+  }
+
+  @Test
+  public void testLookupByBothKeys() {
+    License license = createLicense("key1", "server1", 2_000_000L);
+    LicenseRegistry registry = new LicenseRegistry(10, CLOCK);
+    Assertions.assertNull(registry.put(license));
+    Assertions.assertSame(license, registry.findByUniqueKey("key1"));
+    Assertions.assertSame(license, registry.findByServerUniqueId("server1"));
+    Assertions.assertNull(registry.findByUniqueKey("unknown"));
+    Assertions.assertNull(registry.findByServerUniqueId("unknown"));
+
+    Assertions.assertSame(license, registry.remove("key1"));
+    Assertions.assertNull(registry.findByServerUniqueId("server1"));
+    Assertions.assertEquals(0, registry.size());
+  }
+
+  @Test
+  public void testReplaceMovesServerIndex() {
+    LicenseRegistry registry = new LicenseRegistry(10, CLOCK);
+    License original = createLicense("key1", "server1", 2_000_000L);
+    registry.put(original);
+    License updated = createLicense("key1", "server2", 2_000_000L);
+    Assertions.assertSame(original, registry.put(updated));
+
+    Assertions.assertSame(updated, registry.findByUniqueKey("key1"));
+    Assertions.assertSame(updated, registry.findByServerUniqueId("server2"));
+    Assertions.assertNull(registry.findByServerUniqueId("server1"));
+    Assertions.assertEquals(1, registry.size());
+  }
+
+  @Test
+  public void testInactiveAndRevokedEvictedWhenFull() {
+    LicenseRegistry registry = new LicenseRegistry(3, CLOCK);
+    License expired = createLicense("expired", "s1", 1_200_000L);
+    License revoked = createLicense("revoked", "s2", 2_000_000L);
+    revoked.setRevoked(true);
+    registry.putAll(Stream.of(expired, revoked, createLicense("active1", "s3", 2_000_000L)));
+    Assertions.assertEquals(3, registry.size());
+
+    registry.put(createLicense("active2", "s4", 2_000_000L));
+    Assertions.assertEquals(2, registry.size());
+    Assertions.assertNull(registry.findByUniqueKey("expired"));
+    Assertions.assertNull(registry.findByServerUniqueId("s2"));
+    Assertions.assertNotNull(registry.findByUniqueKey("active1"));
+    Assertions.assertNotNull(registry.findByServerUniqueId("s4"));
+  }
+
+  @Test
+  public void testEvictionScanIsAmortized() {
+    // eviction reads the clock once per scan
+    int[] scans = new int[1];
+    Clock counting = new Clock() {
+      @Override
+      public ZoneId getZone() {
+        return ZoneOffset.UTC;
+      }
+
+      @Override
+      public Clock withZone(ZoneId zone) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Instant instant() {
+        scans[0]++;
+        return CLOCK.instant();
+      }
+    };
+    LicenseRegistry registry = new LicenseRegistry(100, counting);
+    for (int i = 0; i < 100; i++) {
+      registry.put(createLicense("active" + i, null, 2_000_000L));
+    }
+    Assertions.assertEquals(0, scans[0]);
+    registry.put(createLicense("expired", null, 1_200_000L));
+    Assertions.assertEquals(1, scans[0]);
+    Assertions.assertEquals(100, registry.size());
+
+    // active licenses cannot be evicted, so scanning on every put would be 1000 scans
+    for (int i = 100; i < 1100; i++) {
+      registry.put(createLicense("active" + i, null, 2_000_000L));
+    }
+    Assertions.assertEquals(1100, registry.size());
+    Assertions.assertTrue(scans[0] < 30, () -> scans[0] + " scans");
+  }
+
+}
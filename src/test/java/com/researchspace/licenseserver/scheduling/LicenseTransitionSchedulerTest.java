@@ -0,0 +1,109 @@
+package com.researchspace.licenseserver.scheduling;
+
+import com.researchspace.licenseserver.model.License;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LicenseTransitionSchedulerTest {
+
+  private final List<String> events = new ArrayList<>();
+
+  private LicenseTransitionScheduler scheduler;
+
+  @BeforeEach
+  public void setUp() {
+    LicenseTransitionListener listener = new LicenseTransitionListener() {
+      @Override
+      public void activated(License license) {
+        events.add("activated:" + license.getUniqueKey());
+      }
+
+      @Override
+      public void expired(License license) {
+        events.add("expired:" + license.getUniqueKey());
+      }
+    };
+    scheduler = new LicenseTransitionScheduler(listener,
+        Clock.fixed(Instant.ofEpochMilli(0), ZoneOffset.UTC));
+  }
+
+  private License createLicense(String key, long activation, long expiry) {
+    return new License(new Date(activation), new Date(expiry), key, 10);
+  }
+
+  @Test
+  public void testTransitionsFireInOrderAtActivityChanges() {
+    License first = createLicense("first", 100, 300);
+    License second = createLicense("second", 200, 250);
+    scheduler.schedule(first);
+    scheduler.schedule(second);
+
+    Assertions.assertEquals(0, scheduler.advanceTo(100));
+    Assertions.assertFalse(first.isActive(100));
+    Assertions.assertEquals(1, scheduler.advanceTo(101));
+    Assertions.assertTrue(first.isActive(101));
+    Assertions.assertEquals(3, scheduler.advanceTo(300));
+    Assertions.assertFalse(first.isActive(300));
+    Assertions.assertEquals(List.of("activated:first", "activated:second", "expired:second",
+        "expired:first"), events);
+    Assertions.assertEquals(0, scheduler.size());
+  }
+
+  @Test
+  public void testRescheduleSupersedesPreviousTransitions() {
+    License license = createLicense("key", 100, 300);
+    scheduler.schedule(license);
+    scheduler.advanceTo(150);
+    license.setExpiryDate(new Date(500));
+    scheduler.schedule(license);
+
+    Assertions.assertEquals(0, scheduler.advanceTo(400));
+    Assertions.assertEquals(1, scheduler.advanceTo(500));
+    Assertions.assertEquals(List.of("activated:key", "expired:key"), events);
+  }
+
+  @Test
+  public void testRevokedAndPastLicensesHaveNoTransitions() {
+    License revoked = createLicense("revoked", 100, 300);
+    scheduler.schedule(revoked);
+    revoked.setRevoked(true);
+    scheduler.schedule(revoked);
+    scheduler.advanceTo(200);
+    scheduler.schedule(createLicense("past", 50, 150));
+    scheduler.schedule(createLicense("cancelled", 250, 350));
+    scheduler.cancel("cancelled");
+
+    Assertions.assertEquals(0, scheduler.advanceTo(1000));
+    Assertions.assertTrue(events.isEmpty());
+    Assertions.assertEquals(0, scheduler.size());
+  }
+
+  @Test
+  public void testSupersededTransitionsDoNotAccumulate() {
+    License license = createLicense("key", 100, 300);
+    for (int i = 0; i < 10_000; i++) {
+      license.setExpiryDate(new Date(300 + i));
+      scheduler.schedule(license);
+      Assertions.assertTrue(scheduler.queueSize() <= 4, () -> "queue size "
+          + scheduler.queueSize());
+    }
+    for (int i = 0; i < 100; i++) {
+      scheduler.schedule(createLicense("other" + i, 100, 200));
+      scheduler.cancel("other" + i);
+    }
+    Assertions.assertTrue(scheduler.queueSize() <= 4);
+    Assertions.assertEquals(1, scheduler.size());
+
+    Assertions.assertEquals(2, scheduler.advanceTo(20_000));
+    Assertions.assertEquals(List.of("activated:key", "expired:key"), events);
+    Assertions.assertEquals(0, scheduler.queueSize());
+  }
+
+}
@@ -0,0 +1,180 @@
+package com.researchspace.licenseserver.token;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.researchspace.licenseserver.model.License;
+import com.researchspace.licenseserver.model.LicenseSnapshot;
+import com.researchspace.licenseserver.model.SeatRole;
+import java.security.KeyPair;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LicenseTokenVerifierTest {
+
+  private static final long ISSUED_AT = 1_500_000L;
+
+  private static final Clock CLOCK = Clock.fixed(Instant.ofEpochMilli(ISSUED_AT), ZoneOffset.UTC);
+
+  private static final Duration VALIDITY = Duration.ofHours(1);
+
+  private static final Duration SKEW = Duration.ofMinutes(1);
+
+  private final KeyPair keys = LicenseTokenSigner.generateKeyPair();
+
+  private final LicenseTokenSigner signer = new LicenseTokenSigner(keys.getPrivate(), CLOCK,
+      VALIDITY);
+
+  private final LicenseTokenVerifier verifier = LicenseTokenVerifier.forEncodedPublicKey(
+      keys.getPublic().getEncoded(), CLOCK, SKEW);
+
+  private LicenseTokenVerifier verifierAt(long nowMillis) {
+    return new LicenseTokenVerifier(keys.getPublic(),
+        Clock.fixed(Instant.ofEpochMilli(nowMillis), ZoneOffset.UTC), SKEW);
+  }
+
+  private License license() {
+    License license = new License(new Date(1_000_000L), new Date(2_000_000L),
+        "key-\u00e9", 100);
+    license.setTotalFreeSysadmin(2);
+    license.setTotalFreeRSpaceadmin(5);
+    license.setUsedSeatCount(40);
+    return license;
+  }
+
+  @Test
+  public void testRoundTrip() {
+    License license = license();
+    String token = signer.sign(license);
+    Assertions.assertTrue(token.length() < 200, token);
+
+    VerifiedLicenseToken verified = verifier.verify(token);
+    Assertions.assertEquals(ISSUED_AT, verified.getIssuedAtMillis());
+    Assertions.assertEquals(ISSUED_AT + VALIDITY.toMillis(), verified.getExpiresAtMillis());
+    LicenseSnapshot snapshot = verified.getLicense();
+    Assertions.assertEquals("key-\u00e9", snapshot.getUniqueKey());
+    Assertions.assertEquals(1_000_000L, snapshot.getActivationMillis());
+    Assertions.assertEquals(2_000_000L, snapshot.getExpiryMillis());
+    Assertions.assertFalse(snapshot.isRevoked());
+    Assertions.assertEquals(40, snapshot.getUsedSeatCount());
+    for (SeatRole role : SeatRole.values()) {
+      Assertions.assertEquals(license.permits(role, 3, ISSUED_AT),
+          snapshot.permits(role, 3, ISSUED_AT));
+    }
+    Assertions.assertTrue(snapshot.isActive(ISSUED_AT));
+    Assertions.assertFalse(snapshot.isActive(2_000_000L));
+
+    Assertions.assertFalse(verified.isStale(ISSUED_AT + 1000, 1000));
+    Assertions.assertTrue(verified.isStale(ISSUED_AT + 1001, 1000));
+  }
+
+  @Test
+  public void testRevokedAndUndatedLicenses() {
+    License license = license();
+    license.setRevoked(true);
+    Assertions.assertTrue(verifier.verify(signer.sign(license)).getLicense().isRevoked());
+
+    License undated = new License();
+    undated.setUniqueKey("undated");
+    LicenseSnapshot snapshot = verifier.verify(signer.sign(undated)).getLicense();
+    Assertions.assertEquals(Long.MAX_VALUE, snapshot.getActivationMillis());
+    Assertions.assertEquals(Long.MIN_VALUE, snapshot.getExpiryMillis());
+    Assertions.assertFalse(snapshot.isActive(ISSUED_AT));
+
+    assertThrows(IllegalArgumentException.class, () -> signer.sign(new License()));
+  }
+
+  @Test
+  public void testExpiredAndFutureTokensRejected() {
+    String token = signer.sign(license());
+    long expiresAt = ISSUED_AT + VALIDITY.toMillis();
+    Assertions.assertNotNull(verifierAt(expiresAt + SKEW.toMillis()).verify(token));
+    assertThrows(IllegalArgumentException.class,
+        () -> verifierAt(expiresAt + SKEW.toMillis() + 1).verify(token));
+    Assertions.assertNotNull(verifierAt(ISSUED_AT - SKEW.toMillis()).verify(token));
+    assertThrows(IllegalArgumentException.class,
+        () -> verifierAt(ISSUED_AT - SKEW.toMillis() - 1).verify(token));
+
+    // expiry is checked on cached tokens too
+    long[] now = {ISSUED_AT};
+    LicenseTokenVerifier caching = new LicenseTokenVerifier(keys.getPublic(), new Clock() {
+      @Override
+      public ZoneId getZone() {
+        return ZoneOffset.UTC;
+      }
+
+      @Override
+      public Clock withZone(ZoneId zone) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Instant instant() {
+        return Instant.ofEpochMilli(now[0]);
+      }
+    }, SKEW);
+    Assertions.assertNotNull(caching.verify(token));
+    now[0] = expiresAt + SKEW.toMillis() + 1;
+    assertThrows(IllegalArgumentException.class, () -> caching.verify(token));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> new LicenseTokenSigner(keys.getPrivate(), CLOCK, Duration.ZERO));
+  }
+
+  @Test
+  public void testTokenBoundToUniqueKey() {
+    String token = signer.sign(license());
+    Assertions.assertEquals("key-\u00e9", verifier.verify(token, "key-\u00e9").getLicense()
+        .getUniqueKey());
+    assertThrows(IllegalArgumentException.class, () -> verifier.verify(token, "other-key"));
+    assertThrows(IllegalArgumentException.class, () -> verifier.verify(token, null));
+  }
+
+  @Test
+  public void testVerifiedTokenIsCached() {
+    String token = signer.sign(license());
+    VerifiedLicenseToken first = verifier.verify(token);
+    Assertions.assertSame(first, verifier.verify(new String(token)));
+
+    License other = license();
+    other.setUsedSeatCount(41);
+    Assertions.assertEquals(41, verifier.verify(signer.sign(other)).getLicense()
+        .getUsedSeatCount());
+    Assertions.assertNotSame(first, verifier.verify(token));
+  }
+
+  @Test
+  public void testInvalidTokensRejected() {
+    String token = signer.sign(license());
+    int separator = token.indexOf('.');
+
+    // tampered payload: change a character of the base64
+    char[] chars = token.toCharArray();
+    chars[10] = chars[10] == 'A' ? 'B' : 'A';
+    String tampered = new String(chars);
+    assertThrows(IllegalArgumentException.class, () -> verifier.verify(tampered));
+
+    String otherSignature = new LicenseTokenSigner(LicenseTokenSigner.generateKeyPair()
+        .getPrivate(), CLOCK).sign(license());
+    assertThrows(IllegalArgumentException.class, () -> verifier.verify(otherSignature));
+    assertThrows(IllegalArgumentException.class, () -> verifier.verify(
+        token.substring(0, separator + 1) + otherSignature.substring(
+            otherSignature.indexOf('.') + 1)));
+
+    assertThrows(IllegalArgumentException.class, () -> verifier.verify(null));
+    assertThrows(IllegalArgumentException.class, () -> verifier.verify("no-separator"));
+    assertThrows(IllegalArgumentException.class, () -> verifier.verify("!!.!!"));
+    assertThrows(IllegalArgumentException.class,
+        () -> verifier.verify(token.substring(0, separator + 1)));
+    assertThrows(IllegalArgumentException.class,
+        () -> LicenseTokenVerifier.forEncodedPublicKey(new byte[]{1, 2, 3}));
+
+    // a failed verification does not evict the cached token
+    Assertions.assertNotNull(verifier.verify(token));
+  }
+}
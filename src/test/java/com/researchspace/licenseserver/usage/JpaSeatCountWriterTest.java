@@ -0,0 +1,150 @@
+package com.researchspace.licenseserver.usage;
+
+import static com.researchspace.licenseserver.model.JpaTestSupport.inTransaction;
+
+import com.researchspace.licenseserver.model.JpaTestSupport;
+import com.researchspace.licenseserver.model.License;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class JpaSeatCountWriterTest {
+
+  private static EntityManagerFactory emf;
+
+  @BeforeAll
+  public static void setup() {
+    emf = JpaTestSupport.createEntityManagerFactory(JpaTestSupport.CACHED_PERSISTENCE_UNIT,
+        "seatcountwriter");
+    JpaTestSupport.runInTransaction(emf, em -> {
+      JpaTestSupport.persist(em, JpaTestSupport.licenseGraph("a", 1));
+      JpaTestSupport.persist(em, JpaTestSupport.licenseGraph("b", 1));
+      for (String key : new String[] {"c", "d", "e"}) {
+        JpaTestSupport.persist(em, JpaTestSupport.licenseGraph(key, 1));
+      }
+      // fail fast on row locks held by another transaction
+      em.createNativeQuery("SET DEFAULT_LOCK_TIMEOUT 200").executeUpdate();
+    });
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    emf.close();
+  }
+
+  private static License load(String uniqueKey) {
+    return inTransaction(emf, em -> em.createQuery(
+            "select l from License l where l.uniqueKey = :key", License.class)
+        .setParameter("key", uniqueKey).getSingleResult());
+  }
+
+  @Test
+  public void testCoalescedCountsWrittenOnceWithVersionCheck() {
+    long versionBefore = load("a").getVersion();
+    try (SeatCountCoalescer coalescer = new SeatCountCoalescer(new JpaSeatCountWriter(emf))) {
+      for (int i = 1; i <= 100; i++) {
+        coalescer.record("a", i);
+      }
+      coalescer.record("unknown", 3);
+      Assertions.assertEquals(2, coalescer.flush());
+    }
+    License a = load("a");
+    Assertions.assertEquals(100, a.getUsedSeatCount());
+    Assertions.assertEquals(versionBefore + 1, a.getVersion().longValue());
+
+    // unchanged counts are not written
+    new JpaSeatCountWriter(emf).write(Map.of("a", 100));
+    Assertions.assertEquals(versionBefore + 1, load("a").getVersion().longValue());
+  }
+
+  @Test
+  public void testConcurrentUpdateIsDetected() {
+    EntityManager stale = emf.createEntityManager();
+    try {
+      stale.getTransaction().begin();
+      License staleLicense = stale.createQuery(
+              "select l from License l where l.uniqueKey = :key", License.class)
+          .setParameter("key", "b").getSingleResult();
+
+      new JpaSeatCountWriter(emf).write(Map.of("b", 42));
+
+      staleLicense.setUsedSeatCount(7);
+      PersistenceException e = Assertions.assertThrows(PersistenceException.class,
+          () -> stale.getTransaction().commit());
+      Assertions.assertTrue(e instanceof OptimisticLockException
+          || e.getCause() instanceof OptimisticLockException, e.toString());
+    } finally {
+      if (stale.getTransaction().isActive()) {
+        stale.getTransaction().rollback();
+      }
+      stale.close();
+    }
+    Assertions.assertEquals(42, load("b").getUsedSeatCount());
+  }
+
+  @Test
+  public void testFailingLicenseIsIsolated() {
+    EntityManager locking = emf.createEntityManager();
+    try {
+      locking.getTransaction().begin();
+      locking.createQuery("update License l set l.usedSeatCount = 1 where l.uniqueKey = 'd'")
+          .executeUpdate();
+
+      SeatCountWriteException e = Assertions.assertThrows(SeatCountWriteException.class,
+          () -> new JpaSeatCountWriter(emf).write(Map.of("c", 5, "d", 5, "e", 5)));
+      Assertions.assertEquals(Set.of("d"), e.getFailedKeys());
+      Assertions.assertTrue(e.getCause() instanceof PersistenceException, e.toString());
+    } finally {
+      locking.getTransaction().rollback();
+      locking.close();
+    }
+    Assertions.assertEquals(5, load("c").getUsedSeatCount());
+    Assertions.assertEquals(5, load("e").getUsedSeatCount());
+    Assertions.assertEquals(0, load("d").getUsedSeatCount());
+  }
+
+  @Test
+  public void testOtherFailureIsNotSplit() {
+    EntityManagerFactory broken = JpaTestSupport.createEntityManagerFactory(
+        "seatcountwriter-broken");
+    try {
+      JpaTestSupport.runInTransaction(broken, em -> {
+        for (String key : new String[] {"f", "g", "h", "i"}) {
+          JpaTestSupport.persist(em, JpaTestSupport.licenseGraph(key, 1));
+        }
+      });
+      JpaTestSupport.runInTransaction(broken,
+          em -> em.createNativeQuery("ALTER TABLE License RENAME TO Gone").executeUpdate());
+      AtomicInteger attempts = new AtomicInteger();
+      EntityManagerFactory counting = (EntityManagerFactory) Proxy.newProxyInstance(
+          getClass().getClassLoader(), new Class<?>[] {EntityManagerFactory.class},
+          (proxy, method, args) -> {
+            if (method.getName().equals("createEntityManager")) {
+              attempts.incrementAndGet();
+            }
+            try {
+              return method.invoke(broken, args);
+            } catch (InvocationTargetException e) {
+              throw e.getCause();
+            }
+          });
+
+      SeatCountWriteException e = Assertions.assertThrows(SeatCountWriteException.class,
+          () -> new JpaSeatCountWriter(counting).write(Map.of("f", 5, "g", 5, "h", 5, "i", 5)));
+      Assertions.assertEquals(1, attempts.get());
+      Assertions.assertEquals(Set.of("f", "g", "h", "i"), e.getFailedKeys());
+    } finally {
+      broken.close();
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package com.researchspace.licenseserver.usage;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SeatCountCoalescerTest {
+
+  private final List<Map<String, Integer>> batches = new ArrayList<>();
+
+  private final SeatCountCoalescer coalescer = new SeatCountCoalescer(
+      counts -> batches.add(new HashMap<>(counts)));
+
+  @Test
+  public void testBurstIsWrittenOncePerLicense() throws Exception {
+    int threads = 8;
+    int perThread = 10_000;
+    int licenses = 20;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < perThread; i++) {
+          coalescer.record("key" + (i % licenses), i);
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> f : futures) {
+      f.get(30, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    Assertions.assertEquals(licenses, coalescer.pendingCount());
+    Assertions.assertEquals(licenses, coalescer.flush());
+    Assertions.assertEquals(1, batches.size());
+    Assertions.assertEquals(licenses, batches.get(0).size());
+    // every thread's last count for key0 is the same
+    Assertions.assertEquals(perThread - licenses, batches.get(0).get("key0").intValue());
+    Assertions.assertEquals((long) threads * perThread, coalescer.recordedCount());
+    Assertions.assertEquals(licenses, coalescer.writtenCount());
+
+    Assertions.assertEquals(0, coalescer.pendingCount());
+    Assertions.assertEquals(0, coalescer.flush());
+    Assertions.assertEquals(1, batches.size());
+  }
+
+  @Test
+  public void testCountRecordedDuringFlushIsKept() {
+    SeatCountCoalescer[] self = new SeatCountCoalescer[1];
+    self[0] = new SeatCountCoalescer(counts -> {
+      batches.add(new HashMap<>(counts));
+      if (batches.size() == 1) {
+        self[0].record("a", 2);
+      }
+    });
+    self[0].record("a", 1);
+    self[0].record("b", 1);
+    Assertions.assertEquals(2, self[0].flush());
+    Assertions.assertEquals(1, self[0].pendingCount());
+    self[0].flush();
+    Assertions.assertEquals(Map.of("a", 2), batches.get(1));
+  }
+
+  @Test
+  public void testFailedBatchIsRetried() {
+    boolean[] fail = {true};
+    SeatCountCoalescer failing = new SeatCountCoalescer(counts -> {
+      if (fail[0]) {
+        throw new IllegalStateException("database down");
+      }
+      batches.add(new HashMap<>(counts));
+    });
+    failing.record("a", 1);
+    failing.record("b", 5);
+    IllegalStateException failure = assertThrows(IllegalStateException.class, failing::flush);
+    Assertions.assertEquals(2, failing.pendingCount());
+    Assertions.assertEquals(1, failing.failureCount());
+    Assertions.assertSame(failure, failing.lastFailure());
+
+    failing.record("b", 6);
+    fail[0] = false;
+    failing.flush();
+    Assertions.assertEquals(Map.of("a", 1, "b", 6), batches.get(0));
+    Assertions.assertEquals(2, failing.writtenCount());
+  }
+
+  @Test
+  public void testOnlyFailedCountsStayPending() {
+    SeatCountCoalescer partial = new SeatCountCoalescer(counts -> {
+      batches.add(new HashMap<>(counts));
+      if (counts.containsKey("b")) {
+        throw new SeatCountWriteException(Set.of("b"), new IllegalStateException("conflict"));
+      }
+    });
+    partial.record("a", 1);
+    partial.record("b", 5);
+    partial.record("c", 7);
+    assertThrows(SeatCountWriteException.class, partial::flush);
+    Assertions.assertEquals(1, partial.pendingCount());
+    Assertions.assertEquals(2, partial.writtenCount());
+    Assertions.assertEquals(1, partial.failureCount());
+
+    partial.record("a", 2);
+    assertThrows(SeatCountWriteException.class, partial::flush);
+    Assertions.assertEquals(Map.of("a", 2, "b", 5), batches.get(1));
+    Assertions.assertEquals(2, partial.failureCount());
+  }
+
+  @Test
+  public void testScheduledFlushAndClose() throws Exception {
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    try {
+      coalescer.start(executor, 10, TimeUnit.MILLISECONDS);
+      assertThrows(IllegalStateException.class,
+          () -> coalescer.start(executor, 10, TimeUnit.MILLISECONDS));
+      coalescer.record("a", 3);
+      long deadline = System.currentTimeMillis() + 5_000;
+      while (coalescer.pendingCount() > 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+      }
+      Assertions.assertEquals(0, coalescer.pendingCount());
+
+      coalescer.record("b", 4);
+      coalescer.close();
+      Assertions.assertEquals(0, coalescer.pendingCount());
+      Assertions.assertEquals(2, coalescer.writtenCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testNegativeCountRejected() {
+    assertThrows(IllegalArgumentException.class, () -> coalescer.record("a", -1));
+  }
+}
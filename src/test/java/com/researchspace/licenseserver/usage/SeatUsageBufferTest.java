@@ -0,0 +1,71 @@
+package com.researchspace.licenseserver.usage;
+
+import com.researchspace.licenseserver.usage.SeatUsageRollup.Resolution;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SeatUsageBufferTest {
+
+  @Test
+  public void testSamplesAppliedToHistory() {
+    SeatUsageBuffer buffer = new SeatUsageBuffer(2);
+    SeatUsageHistory history = new SeatUsageHistory();
+    Assertions.assertTrue(buffer.add("key", 0, 3));
+    Assertions.assertTrue(buffer.add(new SeatUsageSample("key", 1, 7)));
+    Assertions.assertFalse(buffer.add("key", 2, 9));
+    Assertions.assertEquals(1, buffer.droppedCount());
+    Assertions.assertEquals(2, buffer.size());
+
+    Assertions.assertEquals(2, buffer.drainTo(history));
+    Assertions.assertEquals(0, buffer.size());
+    SeatUsageRollup minute = history.query("key", Resolution.MINUTE, 0, 60_000).get(0);
+    Assertions.assertEquals(3, minute.getMin());
+    Assertions.assertEquals(7, minute.getMax());
+
+    Assertions.assertTrue(buffer.add("key", 3, 1));
+    Assertions.assertEquals(1, buffer.drainTo(history));
+    Assertions.assertEquals(0, buffer.drainTo(history));
+  }
+
+  @Test
+  public void testConcurrentAddsAndDrains() throws Exception {
+    int threads = 4;
+    int perThread = 50_000;
+    SeatUsageBuffer buffer = new SeatUsageBuffer(1024);
+    SeatUsageHistory history = new SeatUsageHistory();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<Integer>> producers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      String key = "key" + t;
+      producers.add(executor.submit(() -> {
+        int added = 0;
+        for (int i = 0; i < perThread; i++) {
+          while (!buffer.add(key, i, i % 100)) {
+            Thread.yield();
+          }
+          added++;
+        }
+        return added;
+      }));
+    }
+    long drained = 0;
+    while (!producers.stream().allMatch(Future::isDone)) {
+      drained += buffer.drainTo(history);
+    }
+    drained += buffer.drainTo(history);
+    executor.shutdown();
+    Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    Assertions.assertEquals((long) threads * perThread, drained);
+    for (int t = 0; t < threads; t++) {
+      SeatUsageRollup minute = history.query("key" + t, Resolution.MINUTE, 0, 60_000).get(0);
+      Assertions.assertEquals(perThread, minute.getSampleCount());
+      Assertions.assertEquals(99, minute.getMax());
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.researchspace.licenseserver.usage;
+
+import com.researchspace.licenseserver.usage.SeatUsageRollup.Resolution;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SeatUsageHistoryTest {
+
+  private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+  private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+  private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+  // a Monday, midnight UTC
+  private static final long START = 1_704_067_200_000L;
+
+  private final SeatUsageHistory history = new SeatUsageHistory();
+
+  @Test
+  public void testRollupsAtEachResolution() {
+    history.record("key", START, 10);
+    history.record("key", START + 20_000, 30);
+    history.record("key", START + MINUTE, 5);
+    history.record(new SeatUsageSample("key", START + HOUR, 50));
+
+    List<SeatUsageRollup> minutes = history.query("key", Resolution.MINUTE, START, START + HOUR);
+    Assertions.assertEquals(2, minutes.size());
+    SeatUsageRollup first = minutes.get(0);
+    Assertions.assertEquals(START, first.getStartMillis());
+    Assertions.assertEquals(START + MINUTE, first.getEndMillis());
+    Assertions.assertEquals(10, first.getMin());
+    Assertions.assertEquals(30, first.getMax());
+    Assertions.assertEquals(20.0, first.getAverage());
+    Assertions.assertEquals(2, first.getSampleCount());
+
+    List<SeatUsageRollup> hours = history.query("key", Resolution.HOUR, START, START + DAY);
+    Assertions.assertEquals(2, hours.size());
+    Assertions.assertEquals(5, hours.get(0).getMin());
+    Assertions.assertEquals(15.0, hours.get(0).getAverage());
+    Assertions.assertEquals(50, hours.get(1).getMax());
+
+    List<SeatUsageRollup> days = history.query("key", Resolution.DAY, START, START + DAY);
+    Assertions.assertEquals(1, days.size());
+    Assertions.assertEquals(5, days.get(0).getMin());
+    Assertions.assertEquals(50, days.get(0).getMax());
+    Assertions.assertEquals(4, days.get(0).getSampleCount());
+
+    Assertions.assertTrue(history.query("other", Resolution.DAY, START, START + DAY).isEmpty());
+    Assertions.assertNull(history.summarize("other", START, START + DAY));
+  }
+
+  @Test
+  public void testYearOfMinuteSamplesQueriedAsDays() {
+    long end = START + 365 * DAY;
+    for (long t = START; t < end; t += MINUTE) {
+      int count = 100 + (int) ((t / HOUR) % 24);
+      history.record("key", t, count);
+    }
+    long peakAt = START + 200 * DAY + 13 * HOUR;
+    history.record("key", peakAt, 900);
+
+    List<SeatUsageRollup> year = history.query("key", START, end);
+    Assertions.assertEquals(365, year.size());
+    Assertions.assertEquals(Resolution.DAY, year.get(0).getResolution());
+
+    long quarterStart = START + 180 * DAY;
+    SeatUsageRollup quarter = history.summarize("key", quarterStart, quarterStart + 91 * DAY);
+    Assertions.assertEquals(900, quarter.getMax());
+    Assertions.assertEquals(100, quarter.getMin());
+    Assertions.assertEquals(91 * 24 * 60 + 1, quarter.getSampleCount());
+
+    // recent ranges are answered at finer resolutions
+    Assertions.assertEquals(Resolution.MINUTE,
+        history.resolutionFor("key", end - HOUR, end, SeatUsageHistory.DEFAULT_MAX_ROWS));
+    Assertions.assertEquals(Resolution.HOUR,
+        history.resolutionFor("key", end - 7 * DAY, end, SeatUsageHistory.DEFAULT_MAX_ROWS));
+    Assertions.assertEquals(60, history.query("key", end - HOUR, end).size());
+  }
+
+  @Test
+  public void testOldBucketsAreOverwritten() {
+    SeatUsageHistory small = new SeatUsageHistory(2, 2, 2);
+    small.record("key", START, 1);
+    small.record("key", START + MINUTE, 2);
+    small.record("key", START + 2 * MINUTE, 3);
+    List<SeatUsageRollup> minutes = small.query("key", Resolution.MINUTE, START,
+        START + HOUR);
+    Assertions.assertEquals(2, minutes.size());
+    Assertions.assertEquals(2, minutes.get(0).getMin());
+
+    // samples older than the retention are ignored
+    small.record("key", START, 100);
+    Assertions.assertEquals(2, small.query("key", Resolution.MINUTE, START, START + HOUR)
+        .get(0).getMax());
+    // but still counted at coarser resolutions that retain them
+    Assertions.assertEquals(100, small.query("key", Resolution.HOUR, START, START + HOUR)
+        .get(0).getMax());
+  }
+}